@@ -6,7 +6,12 @@ import net.minecraft.client.render.RenderLayer;
 import net.pyrix25633.wild_update.block.ModBlocks;
 import net.pyrix25633.wild_update.item.ModItems;
 import net.pyrix25633.wild_update.registries.ModFlammableBlocks;
+import net.pyrix25633.wild_update.registries.ModGameRules;
+import net.pyrix25633.wild_update.registry.BlockInteractions;
+import net.pyrix25633.wild_update.registry.BlockTransformations;
 import net.pyrix25633.wild_update.registry.RegisterDispenser;
+import net.pyrix25633.wild_update.registry.RegisterServerEvents;
+import net.pyrix25633.wild_update.world.feature.ModFeatures;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -26,9 +31,14 @@ public class WildUpdate implements ModInitializer {
 
 		ModItems.registerModItems();
 		ModBlocks.registerModBlocks();
+		ModFeatures.registerFeatures();
 		RegisterDispenser.RegisterDispenser();
+		BlockInteractions.registerInteractions();
+		BlockTransformations.registerTransformations();
+		RegisterServerEvents.registerServerEvents();
 
 		ModFlammableBlocks.registerFlammables();
+		ModGameRules.registerGameRules();
 
 		LOGGER.info("Hello Fabric world!");
 	}
@@ -7,6 +7,8 @@ import net.minecraft.client.color.world.BiomeColors;
 import net.minecraft.client.color.world.FoliageColors;
 import net.minecraft.client.render.RenderLayer;
 import net.pyrix25633.wild_update.block.ModBlocks;
+import net.pyrix25633.wild_update.client.BlockEffectParticles;
+import net.pyrix25633.wild_update.client.TransformationSync;
 import net.pyrix25633.wild_update.item.ModItems;
 import net.pyrix25633.wild_update.registries.ModFlammableBlocks;
 import net.pyrix25633.wild_update.registry.RegisterDispenser;
@@ -32,6 +34,8 @@ public class WildUpdateClient implements ClientModInitializer {
         RegisterDispenser.RegisterDispenser();
 
         ModFlammableBlocks.registerFlammables();
+        BlockEffectParticles.register();
+        TransformationSync.register();
 
         BlockRenderLayerMap.INSTANCE.putBlock(ModBlocks.MANGROVE_TRAPDOOR, RenderLayer.getCutout());
         BlockRenderLayerMap.INSTANCE.putBlock(ModBlocks.MANGROVE_DOOR, RenderLayer.getCutout());
@@ -0,0 +1,56 @@
+package net.pyrix25633.wild_update.block;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.tag.Tag;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/*
+ * Bitset over every block state raw id, built from a block tag once the tags are loaded,
+ * so testing a state is a single bit test with no allocation
+ */
+public class BlockStateIndex {
+    private static final List<BlockStateIndex> INDEXES = new ArrayList<>();
+
+    public static final BlockStateIndex MANGROVE_REPLACEABLE = new BlockStateIndex(ModBlockTags.MANGROVE_REPLACEABLE);
+    public static final BlockStateIndex SCULK_REPLACEABLE = new BlockStateIndex(ModBlockTags.SCULK_REPLACEABLE);
+
+    private final Tag<Block> tag;
+    private volatile BitSet bits;
+
+    private BlockStateIndex(Tag<Block> tag) {
+        this.tag = tag;
+        INDEXES.add(this);
+    }
+
+    /*
+     * Function to rebuild every index, called after the server starts and after every datapack reload
+     */
+    public static void rebuildAll() {
+        for(BlockStateIndex index : INDEXES) {
+            index.rebuild();
+        }
+    }
+
+    private void rebuild() {
+        BitSet built = new BitSet(Block.STATE_IDS.size());
+        for(BlockState state : Block.STATE_IDS) {
+            if(state.isIn(tag)) {
+                built.set(Block.getRawIdFromState(state));
+            }
+        }
+        bits = built;
+    }
+
+    public boolean contains(BlockState state) {
+        BitSet current = bits;
+        if(current == null) {
+            //tags not indexed yet
+            return state.isIn(tag);
+        }
+        return current.get(Block.getRawIdFromState(state));
+    }
+}
@@ -0,0 +1,18 @@
+package net.pyrix25633.wild_update.block;
+
+import net.fabricmc.fabric.api.tag.TagFactory;
+import net.minecraft.block.Block;
+import net.minecraft.tag.Tag;
+import net.minecraft.util.Identifier;
+import net.pyrix25633.wild_update.WildUpdate;
+
+public class ModBlockTags {
+    //blocks a growing mangrove tree can overwrite
+    public static final Tag.Identified<Block> MANGROVE_REPLACEABLE = registerTag("mangrove_replaceable");
+    //blocks a sculk charge can turn into sculk
+    public static final Tag.Identified<Block> SCULK_REPLACEABLE = registerTag("sculk_replaceable");
+
+    private static Tag.Identified<Block> registerTag(String name) {
+        return TagFactory.BLOCK.create(new Identifier(WildUpdate.MOD_ID, name));
+    }
+}
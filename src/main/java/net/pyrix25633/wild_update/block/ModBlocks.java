@@ -120,7 +120,7 @@ public class ModBlocks {
                             .sounds(BlockSoundGroup.WOOD).nonOpaque()),
             ItemGroup.BUILDING_BLOCKS);
     public static final Block MANGROVE_LEAVES = registerBlock("mangrove_leaves",
-            new LeavesBlock(FabricBlockSettings.of(Material.LEAVES)
+            new MangroveLeavesBlock(FabricBlockSettings.of(Material.LEAVES)
                     .strength(0.2f, 0.2f)
                     .sounds(BlockSoundGroup.AZALEA_LEAVES).nonOpaque()),
             ItemGroup.DECORATIONS);
@@ -6,10 +6,6 @@ import net.minecraft.fluid.Fluid;
 import net.minecraft.fluid.FluidState;
 import net.minecraft.fluid.Fluids;
 import net.minecraft.item.ItemPlacementContext;
-import net.minecraft.item.ItemStack;
-import net.minecraft.item.Items;
-import net.minecraft.sound.SoundCategory;
-import net.minecraft.sound.SoundEvents;
 import net.minecraft.state.StateManager;
 import net.minecraft.state.property.BooleanProperty;
 import net.minecraft.state.property.EnumProperty;
@@ -24,7 +20,7 @@ import net.minecraft.util.shape.VoxelShapes;
 import net.minecraft.world.BlockView;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldAccess;
-import net.pyrix25633.wild_update.block.ModBlocks;
+import net.pyrix25633.wild_update.registry.BlockTransformations;
 
 public class HollowLog extends Block implements Waterloggable {
     public static final EnumProperty<Direction.Axis> AXIS;
@@ -192,82 +188,14 @@ public class HollowLog extends Block implements Waterloggable {
         return toReturn;
     }
 
+    //stripping, moss and shearing come from the block transformations of the data packs
     @Override
     @SuppressWarnings("deprecation")
     public ActionResult onUse(BlockState state, World world, BlockPos pos, PlayerEntity player, Hand hand, BlockHitResult hit) {
-        ItemStack playerItem = player.getStackInHand(hand);
-        boolean finished = false;
-        if(state.isOf(this)) {
-            if(playerItem.getItem() == Items.MOSS_CARPET) {
-                if(!state.get(MOSSY)) {
-                    if(state.isOf(ModBlocks.HOLLOW_BIRCH_LOG)) {
-                        world.setBlockState(pos, ModBlocks.HOLLOW_BIRCH_LOG.getDefaultState()
-                                .with(AXIS, state.get(AXIS)).with(MOSSY, true)
-                                .with(WATERLOGGED, state.get(WATERLOGGED)));
-                        world.playSound(player, player.getX(), player.getY(), player.getZ(),
-                                SoundEvents.BLOCK_MOSS_CARPET_PLACE, SoundCategory.NEUTRAL, 1.0f, 1.0f);
-                        if(!player.isCreative()) {
-                            playerItem.decrement(1);
-                        }
-                        finished = true;
-                    }
-                    else if(state.isOf(ModBlocks.STRIPPED_HOLLOW_BIRCH_LOG)) {
-                        world.setBlockState(pos, ModBlocks.STRIPPED_HOLLOW_BIRCH_LOG.getDefaultState()
-                                .with(AXIS, state.get(AXIS)).with(MOSSY, true)
-                                .with(WATERLOGGED, state.get(WATERLOGGED)));
-                        world.playSound(player, player.getX(), player.getY(), player.getZ(),
-                                SoundEvents.BLOCK_MOSS_CARPET_PLACE, SoundCategory.NEUTRAL, 1.0f, 1.0f);
-                        if(!player.isCreative()) {
-                            playerItem.decrement(1);
-                        }
-                        finished = true;
-                    }
-                }
-            }
-            else if(playerItem.getItem() == Items.SHEARS) {
-                if(state.get(MOSSY)) {
-                    if(state.isOf(ModBlocks.HOLLOW_BIRCH_LOG)) {
-                        world.setBlockState(pos, ModBlocks.HOLLOW_BIRCH_LOG.getDefaultState()
-                                .with(AXIS, state.get(AXIS)).with(MOSSY, false)
-                                .with(WATERLOGGED, state.get(WATERLOGGED)));
-                        world.playSound(player, player.getX(), player.getY(), player.getZ(),
-                                SoundEvents.BLOCK_MOSS_CARPET_BREAK, SoundCategory.NEUTRAL, 1.0f, 1.0f);
-                        world.addBlockBreakParticles(pos, Blocks.MOSS_CARPET.getDefaultState());
-                        dropStack(world, pos, new ItemStack(Items.MOSS_CARPET));
-                        playerItem.<PlayerEntity>damage(1, player, (p) -> p.sendToolBreakStatus(hand));
-                        finished = true;
-                    }
-                    else if(state.isOf(ModBlocks.STRIPPED_HOLLOW_BIRCH_LOG)) {
-                        world.setBlockState(pos, ModBlocks.STRIPPED_HOLLOW_BIRCH_LOG.getDefaultState()
-                                .with(AXIS, state.get(AXIS)).with(MOSSY, false)
-                                .with(WATERLOGGED, state.get(WATERLOGGED)));
-                        world.playSound(player, player.getX(), player.getY(), player.getZ(),
-                                SoundEvents.BLOCK_MOSS_CARPET_BREAK, SoundCategory.NEUTRAL, 1.0f, 1.0f);
-                        world.addBlockBreakParticles(pos, Blocks.MOSS_CARPET.getDefaultState());
-                        dropStack(world, pos, new ItemStack(Items.MOSS_CARPET));
-                        playerItem.<PlayerEntity>damage(1, player, (p) -> p.sendToolBreakStatus(hand));
-                        finished = true;
-                    }
-                }
-            }
-            else if(playerItem.getItem() == Items.WOODEN_AXE || playerItem.getItem() == Items.STONE_AXE ||
-                    playerItem.getItem() == Items.IRON_AXE || playerItem.getItem() == Items.GOLDEN_AXE ||
-                    playerItem.getItem() == Items.DIAMOND_AXE || playerItem.getItem() == Items.NETHERITE_AXE){
-                if(state.isOf(ModBlocks.HOLLOW_BIRCH_LOG)) {
-                    world.setBlockState(pos, ModBlocks.STRIPPED_HOLLOW_BIRCH_LOG.getDefaultState()
-                            .with(AXIS, state.get(AXIS)).with(MOSSY, state.get(MOSSY)));
-                    playerItem.<PlayerEntity>damage(1, player, (p) -> p.sendToolBreakStatus(hand));
-                    world.playSound(player, player.getX(), player.getY(), player.getZ(),
-                            SoundEvents.ITEM_AXE_STRIP, SoundCategory.NEUTRAL, 1.0f, 1.0f);
-                    finished = true;
-                }
-            }
+        ActionResult result = BlockTransformations.onUse(state, world, pos, player, hand);
+        if(result != ActionResult.PASS) {
+            return result;
         }
-
-        if(finished){
-            return ActionResult.success(true);
-        }
-
         return super.onUse(state, world, pos, player, hand, hit);
     }
 
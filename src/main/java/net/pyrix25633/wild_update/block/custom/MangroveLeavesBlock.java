@@ -0,0 +1,42 @@
+package net.pyrix25633.wild_update.block.custom;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.LeavesBlock;
+import net.minecraft.tag.BlockTags;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.WorldAccess;
+
+/*
+ * Leaves whose distance is written already resolved by the tree growth. A neighbor update only follows
+ * a shorter path to a log, a longer one is handled by MangroveLeafDecay with a single flood fill
+ */
+public class MangroveLeavesBlock extends LeavesBlock {
+    public static final int MAX_DISTANCE = 7;
+
+    public MangroveLeavesBlock(Settings settings) {
+        super(settings);
+    }
+
+    /*
+     * Function to get the distance a block gives to the leaves next to it, minus one
+     */
+    public static int getDistance(BlockState state) {
+        if(state.isIn(BlockTags.LOGS)) {
+            return 0;
+        }
+        if(state.getBlock() instanceof LeavesBlock) {
+            return state.get(DISTANCE);
+        }
+        return MAX_DISTANCE;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public BlockState getStateForNeighborUpdate(BlockState state, Direction direction, BlockState neighborState, WorldAccess world, BlockPos pos, BlockPos neighborPos) {
+        if(getDistance(neighborState) + 1 < state.get(DISTANCE)) {
+            world.createAndScheduleBlockTick(pos, this, 1);
+        }
+        return state;
+    }
+}
@@ -5,10 +5,6 @@ import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemPlacementContext;
-import net.minecraft.item.ItemStack;
-import net.minecraft.item.Items;
-import net.minecraft.sound.SoundCategory;
-import net.minecraft.sound.SoundEvents;
 import net.minecraft.state.StateManager;
 import net.minecraft.state.property.EnumProperty;
 import net.minecraft.state.property.Properties;
@@ -18,7 +14,7 @@ import net.minecraft.util.hit.BlockHitResult;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
-import net.pyrix25633.wild_update.block.ModBlocks;
+import net.pyrix25633.wild_update.registry.BlockTransformations;
 
 public class ModLogBlock extends Block {
     public static final EnumProperty<Direction.Axis> AXIS;
@@ -33,35 +29,14 @@ public class ModLogBlock extends Block {
         return this.getDefaultState().with(AXIS, ctx.getSide().getAxis());
     }
 
+    //stripping, moss and shearing come from the block transformations of the data packs
     @Override
     @SuppressWarnings("deprecation")
     public ActionResult onUse(BlockState state, World world, BlockPos pos, PlayerEntity player, Hand hand, BlockHitResult hit) {
-        ItemStack playerItem = player.getStackInHand(hand);
-        boolean finished = false;
-
-        if(state.isOf(this)){
-            if ((playerItem.getItem() == Items.WOODEN_AXE || playerItem.getItem() == Items.STONE_AXE || playerItem.getItem() == Items.GOLDEN_AXE ||
-                    playerItem.getItem() == Items.IRON_AXE || playerItem.getItem() == Items.DIAMOND_AXE || playerItem.getItem() == Items.NETHERITE_AXE)) {
-                //Strip Log
-
-                if(state.isOf(ModBlocks.MANGROVE_LOG)){
-                    world.setBlockState(pos, ModBlocks.STRIPPED_MANGROVE_LOG.getDefaultState().with(ModLogBlock.AXIS, state.get(ModLogBlock.AXIS)));
-                    playerItem.<PlayerEntity>damage(1, player, (p) -> p.sendToolBreakStatus(hand));
-                    world.playSound(player, player.getX(), player.getY(), player.getZ(), SoundEvents.ITEM_AXE_STRIP, SoundCategory.NEUTRAL, 1.0f, 1.0f);
-                    finished = true;
-                } else if(state.isOf(ModBlocks.MANGROVE_WOOD)) {
-                    world.setBlockState(pos, ModBlocks.STRIPPED_MANGROVE_WOOD.getDefaultState().with(ModLogBlock.AXIS, state.get(ModLogBlock.AXIS)));
-                    playerItem.<PlayerEntity>damage(1, player, (p) -> p.sendToolBreakStatus(hand));
-                    world.playSound(player, player.getX(), player.getY(), player.getZ(), SoundEvents.ITEM_AXE_STRIP, SoundCategory.NEUTRAL, 1.0f, 1.0f);
-                    finished = true;
-                }
-            }
+        ActionResult result = BlockTransformations.onUse(state, world, pos, player, hand);
+        if(result != ActionResult.PASS) {
+            return result;
         }
-
-        if(finished){
-            return ActionResult.success(true);
-        }
-
         return super.onUse(state, world, pos, player, hand, hit);
     }
 
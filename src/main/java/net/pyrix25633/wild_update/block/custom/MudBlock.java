@@ -1,42 +1,61 @@
 package net.pyrix25633.wild_update.block.custom;
 
 import net.minecraft.block.Block;
-import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
-import net.minecraft.block.PointedDripstoneBlock;
-import net.minecraft.particle.BlockStateParticleEffect;
-import net.minecraft.particle.ParticleTypes;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.sound.SoundEvents;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Direction;
-
-import java.util.Random;
+import net.minecraft.util.math.Vec3d;
+import net.pyrix25633.wild_update.block.ModBlocks;
+import net.pyrix25633.wild_update.world.BlockBatchWriter;
+import net.pyrix25633.wild_update.world.BlockEffects;
+import net.pyrix25633.wild_update.world.LoadedChunks;
 
 public class MudBlock extends Block {
+    public static final int SPLASH_RADIUS = 4, LINGERING_RADIUS = 3;
+
     public MudBlock(Settings settings) {
-        super(settings.ticksRandomly());
+        super(settings);
     }
 
-    @Override
-    @SuppressWarnings("deprecation")
-    public void randomTick(BlockState state, ServerWorld world, BlockPos pos, Random random) {
-        if(world.getBlockState(pos.down()).getBlock() == Blocks.DRIPSTONE_BLOCK &&
-                world.getBlockState(pos.down(2)).getBlock() == Blocks.POINTED_DRIPSTONE &&
-                world.getBlockState(pos.down(2)) == Blocks.POINTED_DRIPSTONE.getDefaultState()
-                        .with(PointedDripstoneBlock.VERTICAL_DIRECTION, Direction.DOWN)) {
-            super.randomTick(state, world, pos, random);
-            world.setBlockState(pos, Blocks.CLAY.getDefaultState());
-            world.addBlockBreakParticles(pos.up(), Blocks.CLAY.getDefaultState());
-            if(!world.isClient) {
-                world.playSound(null, pos, SoundEvents.BLOCK_GRAVEL_PLACE, SoundCategory.BLOCKS,
-                        1.0f, 1.0f);
-                world.spawnParticles(new BlockStateParticleEffect(ParticleTypes.BLOCK, Blocks.CLAY.getDefaultState()),
-                        pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5,
-                        100, 0.2, 0.2, 0.2, 10
-                );
+    /*
+     * Function to turn every dirt block around a splash of water into mud, written as one batch
+     * with one sound and one particle burst for the whole area. Returns how many blocks changed
+     */
+    public static int convertArea(ServerWorld world, Vec3d center, int radius) {
+        BlockBatchWriter writer = new BlockBatchWriter(world);
+        BlockPos origin = new BlockPos(center);
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int dx, dy, dz;
+        for(dx = -radius; dx <= radius; dx++) {
+            for(dz = -radius; dz <= radius; dz++) {
+                if(dx * dx + dz * dz > radius * radius) {
+                    continue;
+                }
+                for(dy = -radius / 2; dy <= radius / 2; dy++) {
+                    pos.set(origin.getX() + dx, origin.getY() + dy, origin.getZ() + dz);
+                    if(LoadedChunks.isLoaded(world, pos) && world.getBlockState(pos).isOf(Blocks.DIRT)) {
+                        writer.setBlockState(pos, ModBlocks.MUD_BLOCK.getDefaultState());
+                    }
+                }
             }
         }
+        int changed = writer.apply();
+        if(changed > 0) {
+            world.playSound(null, origin, SoundEvents.BLOCK_GRAVEL_BREAK, SoundCategory.BLOCKS, 1.0f, 1.0f);
+            BlockEffects.send(world, BlockEffects.MUD_AREA_CONVERTED, origin, radius);
+        }
+        return changed;
+    }
+
+    /*
+     * Function to turn the mud into clay, called by its timer once the dripstone setup under it is checked
+     */
+    public void dry(ServerWorld world, BlockPos pos) {
+        world.setBlockState(pos, Blocks.CLAY.getDefaultState());
+        world.playSound(null, pos, SoundEvents.BLOCK_GRAVEL_PLACE, SoundCategory.BLOCKS,
+                1.0f, 1.0f);
+        BlockEffects.send(world, BlockEffects.MUD_DRIED, pos, 0);
     }
-}
\ No newline at end of file
+}
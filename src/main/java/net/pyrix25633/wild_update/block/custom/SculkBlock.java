@@ -10,6 +10,7 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.pyrix25633.wild_update.world.ExperienceCoalescer;
 
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -24,7 +25,7 @@ public class SculkBlock extends Block {
         super.afterBreak(world, player, pos, state, blockEntity, stack);
         if (EnchantmentHelper.getLevel(Enchantments.SILK_TOUCH, stack) == 0) {
             int exp = ThreadLocalRandom.current().nextInt(1, 5);
-            this.dropExperience((ServerWorld) world, pos, exp);
+            ExperienceCoalescer.get((ServerWorld) world).add(pos, exp);
         }
     }
 }
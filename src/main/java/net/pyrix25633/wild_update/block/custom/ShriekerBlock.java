@@ -7,6 +7,7 @@ import net.minecraft.block.Waterloggable;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.enchantment.EnchantmentHelper;
 import net.minecraft.enchantment.Enchantments;
+import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.fluid.Fluid;
 import net.minecraft.fluid.FluidState;
@@ -14,6 +15,8 @@ import net.minecraft.fluid.Fluids;
 import net.minecraft.item.ItemPlacementContext;
 import net.minecraft.item.ItemStack;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.sound.SoundCategory;
+import net.minecraft.sound.SoundEvents;
 import net.minecraft.state.StateManager;
 import net.minecraft.state.property.BooleanProperty;
 import net.minecraft.state.property.Properties;
@@ -23,15 +26,69 @@ import net.minecraft.util.shape.VoxelShape;
 import net.minecraft.world.BlockView;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldAccess;
+import net.minecraft.world.event.GameEvent;
+import net.pyrix25633.wild_update.world.ShriekerWarnings;
+import net.pyrix25633.wild_update.world.ExperienceCoalescer;
 
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
+/*
+ * A shrieker is idle, shrieking or cooling down. Every change of phase is a scheduled tick,
+ * so an idle shrieker costs nothing and has no block entity
+ */
 public class ShriekerBlock extends Block implements Waterloggable{
     public static final BooleanProperty WATERLOGGED;
+    public static final BooleanProperty SHRIEKING;
+    public static final BooleanProperty COOLDOWN;
+    public static final int SHRIEK_TICKS = 90, COOLDOWN_TICKS = 40;
 
     public ShriekerBlock(Settings settings) {
         super(settings);
-        this.setDefaultState(this.getDefaultState().with(WATERLOGGED, false));
+        this.setDefaultState(this.getDefaultState().with(WATERLOGGED, false).with(SHRIEKING, false).with(COOLDOWN, false));
+    }
+
+    public static boolean isIdle(BlockState state) {
+        return !state.get(SHRIEKING) && !state.get(COOLDOWN);
+    }
+
+    /*
+     * Function to start shrieking, only an idle shrieker can. Returns true if it started
+     */
+    public boolean tryShriek(ServerWorld world, BlockPos pos, BlockState state) {
+        if(!isIdle(state)) {
+            return false;
+        }
+        world.setBlockState(pos, state.with(SHRIEKING, true), Block.NOTIFY_ALL);
+        world.createAndScheduleBlockTick(pos, this, SHRIEK_TICKS);
+        world.playSound(null, pos, SoundEvents.BLOCK_SCULK_SENSOR_CLICKING, SoundCategory.BLOCKS, 2.0f, 0.6f);
+        world.emitGameEvent(GameEvent.BLOCK_PRESS, pos);
+        return true;
+    }
+
+    /*
+     * Function called when a player steps on the shrieker, every shriek raises the warning level of the player
+     */
+    @Override
+    public void onSteppedOn(World world, BlockPos pos, BlockState state, Entity entity) {
+        if(world instanceof ServerWorld serverWorld && entity instanceof PlayerEntity player && !player.isSpectator() &&
+                !player.bypassesSteppingEffects() && tryShriek(serverWorld, pos, state)) {
+            ShriekerWarnings.get(serverWorld.getServer()).tryRaise(player.getUuid(), serverWorld.getServer().getOverworld().getTime());
+        }
+        super.onSteppedOn(world, pos, state, entity);
+    }
+
+    //shrieking, then cooldown, then idle again
+    @Override
+    @SuppressWarnings("deprecation")
+    public void scheduledTick(BlockState state, ServerWorld world, BlockPos pos, Random random) {
+        if(state.get(SHRIEKING)) {
+            world.setBlockState(pos, state.with(SHRIEKING, false).with(COOLDOWN, true), Block.NOTIFY_ALL);
+            world.createAndScheduleBlockTick(pos, this, COOLDOWN_TICKS);
+        }
+        else if(state.get(COOLDOWN)) {
+            world.setBlockState(pos, state.with(COOLDOWN, false), Block.NOTIFY_ALL);
+        }
     }
 
     private static final VoxelShape SHRIEKER = Block.createCuboidShape(0,0,0,16,8,16);
@@ -98,16 +155,18 @@ public class ShriekerBlock extends Block implements Waterloggable{
         super.afterBreak(world, player, pos, state, blockEntity, stack);
         if (EnchantmentHelper.getLevel(Enchantments.SILK_TOUCH, stack) == 0) {
             int exp = ThreadLocalRandom.current().nextInt(5, 10);
-            this.dropExperience((ServerWorld) world, pos, exp);
+            ExperienceCoalescer.get((ServerWorld) world).add(pos, exp);
         }
     }
 
     @Override
     protected void appendProperties(StateManager.Builder<Block, BlockState> builder) {
-        builder.add(WATERLOGGED);
+        builder.add(WATERLOGGED, SHRIEKING, COOLDOWN);
     }
 
     static {
         WATERLOGGED = Properties.WATERLOGGED;
+        SHRIEKING = BooleanProperty.of("shrieking");
+        COOLDOWN = BooleanProperty.of("cooldown");
     }
 }
@@ -9,20 +9,50 @@ import net.minecraft.enchantment.Enchantments;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.state.property.Properties;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.BlockView;
 import net.minecraft.world.World;
+import net.pyrix25633.wild_update.world.ExperienceCoalescer;
 
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
 public class VeinBlock extends GlowLichenBlock implements Waterloggable {
+    private static final Direction[] DIRECTIONS = Direction.values();
 
     public VeinBlock(Settings settings) {
         super(settings);
     }
 
+    /*
+     * Function to get the faces of a vein as a 6-bit mask, one bit for every Direction id
+     */
+    public static int getFaceMask(BlockState state) {
+        int mask = 0;
+        if(state.getBlock() instanceof VeinBlock) {
+            for(Direction direction : DIRECTIONS) {
+                if(state.get(getProperty(direction))) {
+                    mask |= 1 << direction.getId();
+                }
+            }
+        }
+        return mask;
+    }
+
+    /*
+     * Function to get the vein state with the faces of a 6-bit mask
+     */
+    public BlockState withFaceMask(int mask, boolean waterlogged) {
+        BlockState state = this.getDefaultState().with(Properties.WATERLOGGED, waterlogged);
+        for(Direction direction : DIRECTIONS) {
+            state = state.with(getProperty(direction), (mask & (1 << direction.getId())) != 0);
+        }
+        return state;
+    }
+
+    //the spreading is done by SculkSpreading, the vein itself never spreads
     @Override
     protected boolean canSpread(BlockState state, BlockView world, BlockPos pos, Direction from) {
         return false;
@@ -38,7 +68,7 @@ public class VeinBlock extends GlowLichenBlock implements Waterloggable {
         super.afterBreak(world, player, pos, state, blockEntity, stack);
         if (EnchantmentHelper.getLevel(Enchantments.SILK_TOUCH, stack) == 0) {
             int exp = ThreadLocalRandom.current().nextInt(1, 5);
-            this.dropExperience((ServerWorld) world, pos, exp);
+            ExperienceCoalescer.get((ServerWorld) world).add(pos, exp);
         }
     }
 }
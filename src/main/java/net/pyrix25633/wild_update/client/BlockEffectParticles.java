@@ -0,0 +1,109 @@
+package net.pyrix25633.wild_update.client;
+
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.client.rendering.v1.WorldRenderEvents;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.option.ParticlesMode;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.particle.BlockStateParticleEffect;
+import net.minecraft.particle.ParticleTypes;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3d;
+import net.pyrix25633.wild_update.block.ModBlocks;
+import net.pyrix25633.wild_update.world.BlockEffects;
+
+import java.util.Random;
+
+/*
+ * Makes the particles of the block effects on the client. Far effects get fewer particles,
+ * and no more than a fixed number of particles are added in a frame
+ */
+public class BlockEffectParticles {
+    //a block break makes 4x4x4 particles
+    private static final int BURST = 100, BREAK = 64, MAX_PARTICLES_PER_FRAME = 300;
+    //distances where the particles are halved, then quartered, and beyond which nothing is shown
+    private static final double NEAR = 16.0, MIDDLE = 32.0, FAR = 64.0;
+
+    private static final Random RANDOM = new Random();
+    private static int frameBudget = MAX_PARTICLES_PER_FRAME;
+
+    public static void register() {
+        ClientPlayNetworking.registerGlobalReceiver(BlockEffects.CHANNEL, (client, handler, buf, responseSender) -> {
+            int effect = buf.readVarInt();
+            BlockPos pos = buf.readBlockPos();
+            int radius = buf.readUnsignedByte();
+            client.execute(() -> play(client, effect, pos, radius));
+        });
+        WorldRenderEvents.START.register(context -> frameBudget = MAX_PARTICLES_PER_FRAME);
+    }
+
+    /*
+     * Function to get how many of count particles to make for an effect at center, from the distance to the camera
+     * and the particle setting. Nothing is taken from the budget of this frame
+     */
+    private static int getCount(MinecraftClient client, Vec3d center, int count) {
+        if(client.options.particles == ParticlesMode.MINIMAL) {
+            return 0;
+        }
+        if(client.options.particles == ParticlesMode.DECREASED) {
+            count /= 2;
+        }
+        double distance = client.gameRenderer.getCamera().getPos().distanceTo(center);
+        if(distance > FAR) {
+            return 0;
+        }
+        if(distance > MIDDLE) {
+            count /= 4;
+        }
+        else if(distance > NEAR) {
+            count /= 2;
+        }
+        return count;
+    }
+
+    /*
+     * Function to take up to count particles from the budget of this frame, returns how many were taken
+     */
+    private static int spend(int count) {
+        count = Math.min(count, frameBudget);
+        frameBudget -= count;
+        return count;
+    }
+
+    private static void play(MinecraftClient client, int effect, BlockPos pos, int radius) {
+        ClientWorld world = client.world;
+        if(world == null) {
+            return;
+        }
+        Vec3d center = Vec3d.ofCenter(pos);
+        switch(effect) {
+            case BlockEffects.MUD_CONVERTED -> burst(client, world, ModBlocks.MUD_BLOCK.getDefaultState(), center, 0.2, 0.2);
+            case BlockEffects.MUD_DRIED -> {
+                burst(client, world, Blocks.CLAY.getDefaultState(), center, 0.2, 0.2);
+                //the break particles are all or nothing, so only close ones are shown
+                if(getCount(client, center, BREAK) == BREAK && frameBudget >= BREAK) {
+                    spend(BREAK);
+                    client.particleManager.addBlockBreakParticles(pos.up(), Blocks.CLAY.getDefaultState());
+                }
+            }
+            case BlockEffects.MUD_AREA_CONVERTED -> burst(client, world, ModBlocks.MUD_BLOCK.getDefaultState(), center,
+                    radius / 2.0, 0.5);
+        }
+    }
+
+    /*
+     * Function to make a burst of block particles like ServerWorld.spawnParticles would
+     */
+    private static void burst(MinecraftClient client, ClientWorld world, BlockState state, Vec3d center, double spread, double height) {
+        int count = spend(getCount(client, center, BURST)), i;
+        BlockStateParticleEffect particle = new BlockStateParticleEffect(ParticleTypes.BLOCK, state);
+        for(i = 0; i < count; i++) {
+            world.addParticle(particle,
+                    center.x + RANDOM.nextGaussian() * spread, center.y + RANDOM.nextGaussian() * height,
+                    center.z + RANDOM.nextGaussian() * spread,
+                    RANDOM.nextGaussian() * 0.15, RANDOM.nextGaussian() * 0.15, RANDOM.nextGaussian() * 0.15);
+        }
+    }
+}
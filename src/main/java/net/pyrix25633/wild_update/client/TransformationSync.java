@@ -0,0 +1,16 @@
+package net.pyrix25633.wild_update.client;
+
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.pyrix25633.wild_update.registry.BlockTransformations;
+
+/*
+ * Receives the items each block has a transformation for, so the blocks can predict a use on the client
+ */
+public class TransformationSync {
+    public static void register() {
+        ClientPlayNetworking.registerGlobalReceiver(BlockTransformations.CHANNEL, (client, handler, buf, responseSender) ->
+                BlockTransformations.readClientItems(buf));
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> BlockTransformations.clearClientItems());
+    }
+}
@@ -0,0 +1,23 @@
+package net.pyrix25633.wild_update.mixin;
+
+import net.minecraft.entity.ExperienceOrbEntity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.Vec3d;
+import net.pyrix25633.wild_update.world.SculkSpreading;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+
+@Mixin(LivingEntity.class)
+public abstract class LivingEntityMixin {
+    //the experience vanilla has just rolled becomes the sculk charge near a catalyst, instead of orbs
+    @Redirect(method = "dropXp", at = @At(value = "INVOKE",
+            target = "Lnet/minecraft/entity/ExperienceOrbEntity;spawn(Lnet/minecraft/server/world/ServerWorld;Lnet/minecraft/util/math/Vec3d;I)V"))
+    private void spawnXp(ServerWorld world, Vec3d pos, int amount) {
+        LivingEntity entity = (LivingEntity) (Object) this;
+        if (amount <= 0 || !SculkSpreading.onEntityDeath(world, entity.getBlockPos(), amount)) {
+            ExperienceOrbEntity.spawn(world, pos, amount);
+        }
+    }
+}
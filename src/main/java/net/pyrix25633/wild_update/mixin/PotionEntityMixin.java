@@ -0,0 +1,28 @@
+package net.pyrix25633.wild_update.mixin;
+
+import net.minecraft.entity.projectile.thrown.PotionEntity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.potion.PotionUtil;
+import net.minecraft.potion.Potions;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.hit.HitResult;
+import net.pyrix25633.wild_update.block.custom.MudBlock;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(PotionEntity.class)
+public class PotionEntityMixin {
+    //splash and lingering water potions turn the dirt around them into mud
+    @Inject(at = @At("HEAD"), method = "onCollision")
+    private void onCollision(HitResult hitResult, CallbackInfo ci) {
+        PotionEntity potion = (PotionEntity) (Object) this;
+        ItemStack stack = potion.getStack();
+        if (potion.world instanceof ServerWorld serverWorld && PotionUtil.getPotion(stack) == Potions.WATER) {
+            MudBlock.convertArea(serverWorld, hitResult.getPos(),
+                    stack.isOf(Items.LINGERING_POTION) ? MudBlock.LINGERING_RADIUS : MudBlock.SPLASH_RADIUS);
+        }
+    }
+}
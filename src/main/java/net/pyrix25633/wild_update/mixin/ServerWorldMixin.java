@@ -0,0 +1,27 @@
+package net.pyrix25633.wild_update.mixin;
+
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.ProgressListener;
+import net.minecraft.world.World;
+import net.pyrix25633.wild_update.world.SculkChargeStore;
+import net.pyrix25633.wild_update.world.ShriekerWarnings;
+import org.jetbrains.annotations.Nullable;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(ServerWorld.class)
+public class ServerWorldMixin {
+    //the sculk charge regions are forced to disk with the rest of the world, the shrieker warnings with the overworld
+    @Inject(at = @At("TAIL"), method = "save")
+    private void save(@Nullable ProgressListener progressListener, boolean flush, boolean savingDisabled, CallbackInfo ci) {
+        ServerWorld world = (ServerWorld) (Object) this;
+        if (!savingDisabled) {
+            SculkChargeStore.get(world).flush();
+            if (world.getRegistryKey() == World.OVERWORLD) {
+                ShriekerWarnings.saveIfLoaded(world.getTime());
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package net.pyrix25633.wild_update.mixin;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.WorldChunk;
+import net.pyrix25633.wild_update.world.BlockChangeListeners;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+@Mixin(WorldChunk.class)
+public class WorldChunkMixin {
+    @Shadow
+    @Final
+    World world;
+
+    @Inject(at = @At("RETURN"), method = "setBlockState")
+    private void setBlockState(BlockPos pos, BlockState state, boolean moved, CallbackInfoReturnable<BlockState> cir) {
+        BlockState oldState = cir.getReturnValue();
+        if (oldState != null && world instanceof ServerWorld serverWorld) {
+            BlockChangeListeners.onBlockChanged(serverWorld, pos, oldState, state);
+        }
+    }
+}
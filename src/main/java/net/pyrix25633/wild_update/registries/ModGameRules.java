@@ -0,0 +1,17 @@
+package net.pyrix25633.wild_update.registries;
+
+import net.fabricmc.fabric.api.gamerule.v1.GameRuleFactory;
+import net.fabricmc.fabric.api.gamerule.v1.GameRuleRegistry;
+import net.minecraft.world.GameRules;
+import net.pyrix25633.wild_update.WildUpdate;
+
+public class ModGameRules {
+    //nanoseconds of every server tick that the background work of the mod can use, scaled by WorkGovernor
+    public static final GameRules.Key<GameRules.IntRule> WORK_BUDGET =
+            GameRuleRegistry.register("wildUpdateWorkBudget", GameRules.Category.UPDATES,
+                    GameRuleFactory.createIntRule(2000000, 0));
+
+    public static void registerGameRules() {
+        System.out.println("Registering GameRules for " + WildUpdate.MOD_ID);
+    }
+}
@@ -0,0 +1,76 @@
+package net.pyrix25633.wild_update.registry;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.potion.PotionUtil;
+import net.minecraft.potion.Potions;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.sound.SoundCategory;
+import net.minecraft.sound.SoundEvents;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.Hand;
+import net.minecraft.util.hit.BlockHitResult;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.pyrix25633.wild_update.block.ModBlocks;
+import net.pyrix25633.wild_update.world.BlockEffects;
+
+/*
+ * What the mod does when a player uses an item on a vanilla block, by block and then by item.
+ * A block with no entry costs one identity lookup
+ */
+public class BlockInteractions {
+    private static final Reference2ObjectOpenHashMap<Block, Reference2ObjectOpenHashMap<Item, Interaction>> INTERACTIONS =
+            new Reference2ObjectOpenHashMap<>();
+
+    @FunctionalInterface
+    public interface Interaction {
+        ActionResult interact(BlockState state, World world, BlockPos pos, PlayerEntity player, Hand hand, ItemStack stack);
+    }
+
+    public static void register(Block block, Item item, Interaction interaction) {
+        INTERACTIONS.computeIfAbsent(block, key -> new Reference2ObjectOpenHashMap<>()).put(item, interaction);
+    }
+
+    /*
+     * Function called before the block handles the use. Returns PASS to let it
+     */
+    public static ActionResult interact(BlockState state, World world, BlockPos pos, PlayerEntity player, Hand hand) {
+        Reference2ObjectOpenHashMap<Item, Interaction> byItem = INTERACTIONS.get(state.getBlock());
+        if(byItem == null) {
+            return ActionResult.PASS;
+        }
+        ItemStack stack = player.getStackInHand(hand);
+        Interaction interaction = byItem.get(stack.getItem());
+        return interaction == null ? ActionResult.PASS : interaction.interact(state, world, pos, player, hand, stack);
+    }
+
+    public static void registerInteractions() {
+        register(Blocks.DIRT, Items.POTION, BlockInteractions::makeMud);
+    }
+
+    /*
+     * Function to turn dirt into mud with a water bottle
+     */
+    private static ActionResult makeMud(BlockState state, World world, BlockPos pos, PlayerEntity player, Hand hand, ItemStack stack) {
+        if(PotionUtil.getPotion(stack) != Potions.WATER) {
+            return ActionResult.PASS;
+        }
+        if(world.isClient) {
+            return ActionResult.SUCCESS;
+        }
+        world.setBlockState(pos, ModBlocks.MUD_BLOCK.getDefaultState());
+        world.playSound(null, pos, SoundEvents.BLOCK_GRAVEL_BREAK, SoundCategory.BLOCKS, 1f, 1f);
+        BlockEffects.send((ServerWorld)world, BlockEffects.MUD_CONVERTED, pos, 0);
+        if(player.canModifyBlocks() && !player.isCreative()) {
+            player.setStackInHand(hand, new ItemStack(Items.GLASS_BOTTLE));
+        }
+        return ActionResult.CONSUME;
+    }
+}
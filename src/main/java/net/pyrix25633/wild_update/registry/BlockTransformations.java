@@ -0,0 +1,367 @@
+package net.pyrix25633.wild_update.registry;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.network.Packet;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.resource.Resource;
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.resource.ResourceType;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.sound.SoundCategory;
+import net.minecraft.sound.SoundEvent;
+import net.minecraft.state.property.Property;
+import net.minecraft.tag.ServerTagManagerHolder;
+import net.minecraft.util.ActionResult;
+import net.minecraft.util.Hand;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.JsonHelper;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldEvents;
+import net.pyrix25633.wild_update.WildUpdate;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Block transformations done with an item, like stripping, adding moss or shearing it away, loaded from
+ * data/<namespace>/transformations/*.json. Once the tags are loaded they are indexed by source block and item,
+ * with the item tags expanded, so a use only checks the block properties. Used by the blocks and by the dispenser.
+ * The clients only receive the items each block has a transformation for, so they can predict the use
+ */
+public class BlockTransformations {
+    public static final Identifier CHANNEL = new Identifier(WildUpdate.MOD_ID, "transformations");
+    private static final Transformation[] NONE = new Transformation[0];
+    //written on reload and read by the server thread, each side only reads its own table
+    private static volatile Reference2ObjectOpenHashMap<Block, Transformation[]> transformations = new Reference2ObjectOpenHashMap<>();
+    private static volatile Reference2ObjectOpenHashMap<Block, Reference2ObjectOpenHashMap<Item, Transformation[]>> index =
+            new Reference2ObjectOpenHashMap<>();
+    private static volatile Reference2ObjectOpenHashMap<Block, Set<Item>> clientItems = new Reference2ObjectOpenHashMap<>();
+
+    public static class Transformation {
+        //exactly one of item and itemTag is set
+        @Nullable
+        private final Item item;
+        @Nullable
+        private final Identifier itemTag;
+        private final Map<Property<?>, Comparable<?>> when;
+        private final Block result;
+        //null copies every property the two blocks share
+        @Nullable
+        private final List<String> copy;
+        private final Map<String, String> set;
+        @Nullable
+        private final SoundEvent sound;
+        //block whose break particles and sound are shown
+        @Nullable
+        private final BlockState particles;
+        @Nullable
+        private final Item drop;
+        private final int damage, consume;
+
+        private Transformation(@Nullable Item item, @Nullable Identifier itemTag, Map<Property<?>, Comparable<?>> when,
+                               Block result, @Nullable List<String> copy, Map<String, String> set, @Nullable SoundEvent sound,
+                               @Nullable BlockState particles, @Nullable Item drop, int damage, int consume) {
+            this.item = item;
+            this.itemTag = itemTag;
+            this.when = when;
+            this.result = result;
+            this.copy = copy;
+            this.set = set;
+            this.sound = sound;
+            this.particles = particles;
+            this.drop = drop;
+            this.damage = damage;
+            this.consume = consume;
+        }
+
+        private boolean matches(BlockState state) {
+            for(Map.Entry<Property<?>, Comparable<?>> entry : when.entrySet()) {
+                if(!state.get(entry.getKey()).equals(entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /*
+         * Function to get the result state, with the properties carried over from the source and then the ones set
+         */
+        public BlockState getResult(BlockState state) {
+            BlockState resultState = result.getDefaultState();
+            for(Property<?> property : state.getProperties()) {
+                if(copy == null || copy.contains(property.getName())) {
+                    resultState = copyProperty(state, resultState, property);
+                }
+            }
+            for(Map.Entry<String, String> entry : set.entrySet()) {
+                Property<?> property = result.getStateManager().getProperty(entry.getKey());
+                if(property != null) {
+                    resultState = setProperty(resultState, property, entry.getValue());
+                }
+            }
+            return resultState;
+        }
+
+        /*
+         * Function to transform the block, player is null when a dispenser does it
+         */
+        public void apply(World world, BlockPos pos, BlockState state, @Nullable PlayerEntity player, Hand hand, ItemStack stack) {
+            world.setBlockState(pos, getResult(state));
+            if(particles != null) {
+                world.syncWorldEvent(WorldEvents.BLOCK_BROKEN, pos, Block.getRawIdFromState(particles));
+            }
+            if(sound != null) {
+                world.playSound(null, pos, sound, SoundCategory.BLOCKS, 1.0f, 1.0f);
+            }
+            if(drop != null) {
+                Block.dropStack(world, pos, new ItemStack(drop));
+            }
+            if(damage > 0) {
+                if(player != null) {
+                    stack.<PlayerEntity>damage(damage, player, (p) -> p.sendToolBreakStatus(hand));
+                }
+                else if(stack.damage(damage, world.random, null)) {
+                    stack.setCount(0);
+                }
+            }
+            if(consume > 0 && (player == null || !player.isCreative())) {
+                stack.decrement(consume);
+            }
+        }
+    }
+
+    @Nullable
+    public static Transformation find(BlockState state, Item item) {
+        Reference2ObjectOpenHashMap<Item, Transformation[]> byItem = index.get(state.getBlock());
+        if(byItem == null) {
+            return null;
+        }
+        for(Transformation transformation : byItem.getOrDefault(item, NONE)) {
+            if(transformation.matches(state)) {
+                return transformation;
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Function to index the transformations by block and item, expanding the item tags.
+     * Called after the server starts and after every datapack reload, once the tags are loaded
+     */
+    private static void rebuildIndex() {
+        Reference2ObjectOpenHashMap<Block, Reference2ObjectOpenHashMap<Item, Transformation[]>> rebuilt = new Reference2ObjectOpenHashMap<>();
+        for(Map.Entry<Block, Transformation[]> entry : transformations.entrySet()) {
+            //the order of the files is kept for every item
+            Reference2ObjectOpenHashMap<Item, List<Transformation>> lists = new Reference2ObjectOpenHashMap<>();
+            for(Transformation transformation : entry.getValue()) {
+                if(transformation.item != null) {
+                    lists.computeIfAbsent(transformation.item, key -> new ArrayList<>()).add(transformation);
+                }
+                else {
+                    for(Item item : ServerTagManagerHolder.getTagManager().getOrCreateTagGroup(Registry.ITEM_KEY)
+                            .getTagOrEmpty(transformation.itemTag).values()) {
+                        lists.computeIfAbsent(item, key -> new ArrayList<>()).add(transformation);
+                    }
+                }
+            }
+            Reference2ObjectOpenHashMap<Item, Transformation[]> byItem = new Reference2ObjectOpenHashMap<>();
+            for(Map.Entry<Item, List<Transformation>> list : lists.entrySet()) {
+                byItem.put(list.getKey(), list.getValue().toArray(NONE));
+            }
+            rebuilt.put(entry.getKey(), byItem);
+        }
+        index = rebuilt;
+    }
+
+    /*
+     * Function called by the blocks in onUse. Returns PASS if no transformation matches,
+     * the client answers from the items the server sent it
+     */
+    public static ActionResult onUse(BlockState state, World world, BlockPos pos, PlayerEntity player, Hand hand) {
+        ItemStack stack = player.getStackInHand(hand);
+        if(world.isClient) {
+            Set<Item> items = clientItems.get(state.getBlock());
+            return items != null && items.contains(stack.getItem()) ? ActionResult.SUCCESS : ActionResult.PASS;
+        }
+        Transformation transformation = find(state, stack.getItem());
+        if(transformation == null) {
+            return ActionResult.PASS;
+        }
+        transformation.apply(world, pos, state, player, hand, stack);
+        return ActionResult.CONSUME;
+    }
+
+    /*
+     * Function to build the packet of the items each block has a transformation for, from the index
+     */
+    private static Packet<?> createSyncPacket() {
+        PacketByteBuf buf = PacketByteBufs.create();
+        Reference2ObjectOpenHashMap<Block, Reference2ObjectOpenHashMap<Item, Transformation[]>> current = index;
+        buf.writeVarInt(current.size());
+        for(Map.Entry<Block, Reference2ObjectOpenHashMap<Item, Transformation[]>> entry : current.entrySet()) {
+            buf.writeVarInt(Registry.BLOCK.getRawId(entry.getKey()));
+            buf.writeVarInt(entry.getValue().size());
+            for(Item item : entry.getValue().keySet()) {
+                buf.writeVarInt(Registry.ITEM.getRawId(item));
+            }
+        }
+        return ServerPlayNetworking.createS2CPacket(CHANNEL, buf);
+    }
+
+    /*
+     * Function to read the items sent by the server, called on the client
+     */
+    public static void readClientItems(PacketByteBuf buf) {
+        Reference2ObjectOpenHashMap<Block, Set<Item>> received = new Reference2ObjectOpenHashMap<>();
+        int blocks = buf.readVarInt(), i, j;
+        for(i = 0; i < blocks; i++) {
+            Block block = Registry.BLOCK.get(buf.readVarInt());
+            int count = buf.readVarInt();
+            Set<Item> items = new ReferenceOpenHashSet<>();
+            for(j = 0; j < count; j++) {
+                items.add(Registry.ITEM.get(buf.readVarInt()));
+            }
+            received.put(block, items);
+        }
+        clientItems = received;
+    }
+
+    public static void clearClientItems() {
+        clientItems = new Reference2ObjectOpenHashMap<>();
+    }
+
+    private static <T extends Comparable<T>> BlockState copyProperty(BlockState from, BlockState to, Property<T> property) {
+        return to.contains(property) ? to.with(property, from.get(property)) : to;
+    }
+
+    private static <T extends Comparable<T>> BlockState setProperty(BlockState state, Property<T> property, String value) {
+        return property.parse(value).map(parsed -> state.with(property, parsed)).orElse(state);
+    }
+
+    private static Transformation parse(Block block, JsonObject json) {
+        String itemName = JsonHelper.getString(json, "item");
+        Item item = null;
+        Identifier itemTag = null;
+        if(itemName.startsWith("#")) {
+            itemTag = new Identifier(itemName.substring(1));
+        }
+        else {
+            item = Registry.ITEM.getOrEmpty(new Identifier(itemName))
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown item " + itemName));
+        }
+        Map<Property<?>, Comparable<?>> when = new HashMap<>();
+        JsonObject whenJson = JsonHelper.getObject(json, "when", new JsonObject());
+        for(Map.Entry<String, JsonElement> entry : whenJson.entrySet()) {
+            Property<?> property = block.getStateManager().getProperty(entry.getKey());
+            if(property == null) {
+                throw new IllegalArgumentException("Unknown property " + entry.getKey() + " of " + Registry.BLOCK.getId(block));
+            }
+            when.put(property, property.parse(entry.getValue().getAsString())
+                    .orElseThrow(() -> new IllegalArgumentException("Bad value for " + entry.getKey())));
+        }
+        List<String> copy = null;
+        if(json.has("copy")) {
+            copy = new ArrayList<>();
+            for(JsonElement element : JsonHelper.getArray(json, "copy")) {
+                copy.add(element.getAsString());
+            }
+        }
+        Map<String, String> set = new HashMap<>();
+        for(Map.Entry<String, JsonElement> entry : JsonHelper.getObject(json, "set", new JsonObject()).entrySet()) {
+            set.put(entry.getKey(), entry.getValue().getAsString());
+        }
+        SoundEvent sound = json.has("sound") ? getEntry(Registry.SOUND_EVENT, json, "sound") : null;
+        BlockState particles = json.has("particles") ? getEntry(Registry.BLOCK, json, "particles").getDefaultState() : null;
+        Item drop = json.has("drop") ? getEntry(Registry.ITEM, json, "drop") : null;
+        return new Transformation(item, itemTag, when, getEntry(Registry.BLOCK, json, "result"), copy, set, sound, particles,
+                drop, JsonHelper.getInt(json, "damage", 0), JsonHelper.getInt(json, "consume", 0));
+    }
+
+    private static <T> T getEntry(Registry<T> registry, JsonObject json, String key) {
+        Identifier id = new Identifier(JsonHelper.getString(json, key));
+        return registry.getOrEmpty(id).orElseThrow(() -> new IllegalArgumentException("Unknown " + key + " " + id));
+    }
+
+    /*
+     * Function to read every transformation file, a file can hold one transformation or an array of them
+     */
+    private static void reload(ResourceManager manager) {
+        Map<Block, List<Transformation>> byBlock = new HashMap<>();
+        for(Identifier id : manager.findResources("transformations", path -> path.endsWith(".json"))) {
+            try(Resource resource = manager.getResource(id);
+                Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+                JsonElement element = JsonParser.parseReader(reader);
+                JsonArray array = new JsonArray();
+                if(element.isJsonArray()) {
+                    array = element.getAsJsonArray();
+                }
+                else {
+                    array.add(element);
+                }
+                for(JsonElement entry : array) {
+                    JsonObject json = JsonHelper.asObject(entry, "transformation");
+                    Block block = getEntry(Registry.BLOCK, json, "block");
+                    byBlock.computeIfAbsent(block, key -> new ArrayList<>()).add(parse(block, json));
+                }
+            }
+            catch(IOException | RuntimeException e) {
+                WildUpdate.LOGGER.error("Could not load block transformation " + id, e);
+            }
+        }
+        Reference2ObjectOpenHashMap<Block, Transformation[]> index = new Reference2ObjectOpenHashMap<>();
+        for(Map.Entry<Block, List<Transformation>> entry : byBlock.entrySet()) {
+            index.put(entry.getKey(), entry.getValue().toArray(NONE));
+        }
+        transformations = index;
+    }
+
+    public static void registerTransformations() {
+        ResourceManagerHelper.get(ResourceType.SERVER_DATA).registerReloadListener(new SimpleSynchronousResourceReloadListener() {
+            @Override
+            public Identifier getFabricId() {
+                return new Identifier(WildUpdate.MOD_ID, "transformations");
+            }
+
+            @Override
+            public void reload(ResourceManager manager) {
+                BlockTransformations.reload(manager);
+            }
+        });
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> rebuildIndex());
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> handler.sendPacket(createSyncPacket()));
+        //the tags are reloaded with the data packs, so they are resolved again after every reload
+        ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, manager, success) -> {
+            rebuildIndex();
+            Packet<?> packet = createSyncPacket();
+            for(ServerPlayerEntity player : server.getPlayerManager().getPlayerList()) {
+                player.networkHandler.sendPacket(packet);
+            }
+        });
+    }
+}
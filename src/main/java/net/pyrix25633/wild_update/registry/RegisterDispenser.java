@@ -3,15 +3,21 @@ package net.pyrix25633.wild_update.registry;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.block.DispenserBlock;
+import net.minecraft.block.dispenser.DispenserBehavior;
 import net.minecraft.block.dispenser.FallibleItemDispenserBehavior;
+import net.minecraft.block.dispenser.ItemDispenserBehavior;
+import net.minecraft.block.dispenser.ShearsDispenserBehavior;
+import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
 import net.minecraft.potion.PotionUtil;
 import net.minecraft.potion.Potions;
+import net.minecraft.util.Hand;
 import net.minecraft.util.math.BlockPointer;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
+import net.minecraft.world.WorldEvents;
 import net.pyrix25633.wild_update.block.ModBlocks;
 
 public class RegisterDispenser {
@@ -35,5 +41,29 @@ public class RegisterDispenser {
                 }
             }
         });
+        //items used by the shipped block transformations, shears keep their vanilla behavior when nothing matches
+        for(Item item : new Item[] {Items.WOODEN_AXE, Items.STONE_AXE, Items.IRON_AXE, Items.GOLDEN_AXE, Items.DIAMOND_AXE,
+                Items.NETHERITE_AXE, Items.MOSS_CARPET}) {
+            registerTransformation(item, new ItemDispenserBehavior());
+        }
+        registerTransformation(Items.SHEARS, new ShearsDispenserBehavior());
+    }
+
+    /*
+     * Function to make a dispenser apply the block transformation of the item to the block in front of it
+     */
+    private static void registerTransformation(Item item, DispenserBehavior fallback) {
+        DispenserBlock.registerBehavior(item, (pointer, stack) -> {
+            BlockPos blockPos = pointer.getPos().offset(pointer.getBlockState().get(DispenserBlock.FACING));
+            World world = pointer.getWorld();
+            BlockState blockState = world.getBlockState(blockPos);
+            BlockTransformations.Transformation transformation = BlockTransformations.find(blockState, stack.getItem());
+            if(transformation == null) {
+                return fallback.dispense(pointer, stack);
+            }
+            transformation.apply(world, blockPos, blockState, null, Hand.MAIN_HAND, stack);
+            world.syncWorldEvent(WorldEvents.DISPENSER_DISPENSES, pointer.getPos(), 0);
+            return stack;
+        });
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package net.pyrix25633.wild_update.registry;
+
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.minecraft.server.world.ServerWorld;
+import net.pyrix25633.wild_update.block.BlockStateIndex;
+import net.pyrix25633.wild_update.world.BlockTimers;
+import net.pyrix25633.wild_update.world.ExperienceCoalescer;
+import net.pyrix25633.wild_update.world.MangroveDecorations;
+import net.pyrix25633.wild_update.world.MangroveGrowth;
+import net.pyrix25633.wild_update.world.MangroveLeafDecay;
+import net.pyrix25633.wild_update.world.ObstructedGrowthCache;
+import net.pyrix25633.wild_update.world.SculkChargeStore;
+import net.pyrix25633.wild_update.world.SculkDeviceRegistry;
+import net.pyrix25633.wild_update.world.SculkSpreading;
+import net.pyrix25633.wild_update.world.ShriekerWarnings;
+import net.pyrix25633.wild_update.world.WorkGovernor;
+
+public class RegisterServerEvents {
+    public static void registerServerEvents() {
+        WorkGovernor.register((world, deadline) -> MangroveGrowth.get(world).work(deadline));
+        WorkGovernor.register((world, deadline) -> MangroveLeafDecay.get(world).work(deadline));
+        WorkGovernor.register((world, deadline) -> MangroveDecorations.get(world).work(world, deadline));
+        WorkGovernor.register((world, deadline) -> BlockTimers.get(world).work(deadline));
+        WorkGovernor.register((world, deadline) -> SculkSpreading.get(world).work(deadline));
+        ServerTickEvents.END_SERVER_TICK.register(WorkGovernor::tick);
+        ServerTickEvents.END_SERVER_TICK.register(server -> ExperienceCoalescer.flushAll());
+
+        ServerChunkEvents.CHUNK_LOAD.register((world, chunk) -> {
+            BlockTimers.get(world).onChunkLoad(chunk);
+            SculkDeviceRegistry.get(world).onChunkLoad(chunk);
+            SculkSpreading.get(world).onChunkLoad(chunk.getPos());
+        });
+        ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> {
+            ObstructedGrowthCache.get(world).onChunkUnload(chunk.getPos());
+            SculkDeviceRegistry.get(world).onChunkUnload(chunk.getPos());
+            SculkSpreading.get(world).onChunkUnload(chunk.getPos());
+        });
+
+        ServerLifecycleEvents.SERVER_STARTED.register(server -> BlockStateIndex.rebuildAll());
+        ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resourceManager, success) -> BlockStateIndex.rebuildAll());
+        ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+            for(ServerWorld world : server.getWorlds()) {
+                SculkSpreading.get(world).unloadAll();
+                MangroveLeafDecay.get(world).unloadAll();
+            }
+        });
+        ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+            MangroveGrowth.clear();
+            ExperienceCoalescer.clear();
+            MangroveLeafDecay.clear();
+            BlockTimers.clear();
+            SculkSpreading.clear();
+            SculkDeviceRegistry.clear();
+            SculkChargeStore.closeAll();
+            ShriekerWarnings.close();
+            ObstructedGrowthCache.clear();
+        });
+    }
+}
@@ -0,0 +1,218 @@
+package net.pyrix25633.wild_update.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockEntityProvider;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.server.world.ServerChunkManager;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+import net.minecraft.world.chunk.light.LightingProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Collects many block placements and writes them straight into the chunk sections,
+ * doing the heightmap, light and client sync work once per section instead of once per block.
+ * Block entities are removed and created like WorldChunk.setBlockState does.
+ * Neighbor and shape updates and fluid ticks run once per changed block after every section is written.
+ * Placements in chunks that are not loaded are dropped, they are never loaded here
+ */
+public class BlockBatchWriter {
+    private static final Heightmap.Type[] HEIGHTMAPS = {Heightmap.Type.MOTION_BLOCKING,
+            Heightmap.Type.MOTION_BLOCKING_NO_LEAVES, Heightmap.Type.OCEAN_FLOOR, Heightmap.Type.WORLD_SURFACE};
+
+    private final ServerWorld world;
+    private final Long2ObjectOpenHashMap<BlockState> pending = new Long2ObjectOpenHashMap<>();
+    //blocks changed by apply, updated once the whole batch is in the world
+    private final LongArrayList changedPositions = new LongArrayList();
+    private final List<BlockState> changedOld = new ArrayList<>(), changedNew = new ArrayList<>();
+
+    public BlockBatchWriter(ServerWorld world) {
+        this.world = world;
+    }
+
+    public ServerWorld getWorld() {
+        return world;
+    }
+
+    /*
+     * Function to queue a block placement, a later placement at the same position wins
+     */
+    public void setBlockState(BlockPos pos, BlockState state) {
+        pending.put(pos.asLong(), state);
+    }
+
+    /*
+     * Function to read a block, seeing the placements that are still queued
+     */
+    public BlockState getBlockState(BlockPos pos) {
+        BlockState state = pending.get(pos.asLong());
+        return state != null ? state : world.getBlockState(pos);
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    /*
+     * Function to write every queued placement, returns how many blocks actually changed
+     */
+    public int apply() {
+        if(pending.isEmpty()) {
+            return 0;
+        }
+        Long2ObjectOpenHashMap<LongArrayList> bySection = new Long2ObjectOpenHashMap<>();
+        ObjectIterator<Long2ObjectMap.Entry<BlockState>> iterator = pending.long2ObjectEntrySet().fastIterator();
+        while(iterator.hasNext()) {
+            long packed = iterator.next().getLongKey();
+            int y = BlockPos.unpackLongY(packed);
+            if(world.isOutOfHeightLimit(y)) {
+                continue;
+            }
+            long sectionKey = ChunkSectionPos.asLong(ChunkSectionPos.getSectionCoord(BlockPos.unpackLongX(packed)),
+                    ChunkSectionPos.getSectionCoord(y), ChunkSectionPos.getSectionCoord(BlockPos.unpackLongZ(packed)));
+            LongArrayList positions = bySection.get(sectionKey);
+            if(positions == null) {
+                positions = new LongArrayList();
+                bySection.put(sectionKey, positions);
+            }
+            positions.add(packed);
+        }
+        int changed = 0;
+        ObjectIterator<Long2ObjectMap.Entry<LongArrayList>> sections = bySection.long2ObjectEntrySet().fastIterator();
+        while(sections.hasNext()) {
+            Long2ObjectMap.Entry<LongArrayList> entry = sections.next();
+            changed += applySection(entry.getLongKey(), entry.getValue());
+        }
+        pending.clear();
+        updateChanged();
+        return changed;
+    }
+
+    /*
+     * Function to do what World.setBlockState does with NOTIFY_ALL after the write: neighbor updates, shape updates
+     * of the blocks around, and a fluid tick for the new fluids. It runs after the whole batch, so the neighbors see every block
+     */
+    private void updateChanged() {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int i;
+        for(i = 0; i < changedPositions.size(); i++) {
+            pos.set(changedPositions.getLong(i));
+            BlockState oldState = changedOld.get(i), newState = changedNew.get(i);
+            world.updateNeighbors(pos, newState.getBlock());
+            oldState.prepare(world, pos, Block.NOTIFY_LISTENERS);
+            newState.updateNeighbors(world, pos, Block.NOTIFY_LISTENERS);
+            newState.prepare(world, pos, Block.NOTIFY_LISTENERS);
+            FluidState fluid = newState.getFluidState();
+            if(!fluid.isEmpty()) {
+                world.createAndScheduleFluidTick(pos.toImmutable(), fluid.getFluid(), fluid.getFluid().getTickRate(world));
+            }
+        }
+        changedPositions.clear();
+        changedOld.clear();
+        changedNew.clear();
+    }
+
+    /*
+     * Function to write the placements of a single chunk section
+     */
+    private int applySection(long sectionKey, LongArrayList positions) {
+        int sectionX = ChunkSectionPos.unpackX(sectionKey);
+        int sectionY = ChunkSectionPos.unpackY(sectionKey);
+        int sectionZ = ChunkSectionPos.unpackZ(sectionKey);
+        WorldChunk chunk = world.getChunkManager().getWorldChunk(sectionX, sectionZ);
+        if(chunk == null) {
+            return 0;
+        }
+        ChunkSection section = chunk.getSection(chunk.getSectionIndex(ChunkSectionPos.getBlockCoord(sectionY)));
+        boolean wasEmpty = section.isEmpty();
+        int count = positions.size();
+        BlockState[] oldStates = new BlockState[count];
+        BlockState[] newStates = new BlockState[count];
+        int i, changed = 0;
+
+        section.lock();
+        try {
+            for(i = 0; i < count; i++) {
+                long packed = positions.getLong(i);
+                int x = BlockPos.unpackLongX(packed), y = BlockPos.unpackLongY(packed), z = BlockPos.unpackLongZ(packed);
+                BlockState state = pending.get(packed);
+                BlockState old = section.setBlockState(x & 15, y & 15, z & 15, state, false);
+                if(old != state) {
+                    positions.set(changed, packed);
+                    oldStates[changed] = old;
+                    newStates[changed] = state;
+                    changed++;
+                }
+            }
+        }
+        finally {
+            section.unlock();
+        }
+        if(changed == 0) {
+            return 0;
+        }
+
+        ServerChunkManager chunkManager = world.getChunkManager();
+        LightingProvider lightingProvider = chunkManager.getLightingProvider();
+        if(wasEmpty != section.isEmpty()) {
+            lightingProvider.setSectionStatus(ChunkSectionPos.from(sectionX, sectionY, sectionZ), section.isEmpty());
+        }
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for(i = 0; i < changed; i++) {
+            long packed = positions.getLong(i);
+            int x = BlockPos.unpackLongX(packed), y = BlockPos.unpackLongY(packed), z = BlockPos.unpackLongZ(packed);
+            pos.set(x, y, z);
+            for(Heightmap.Type type : HEIGHTMAPS) {
+                chunk.getHeightmap(type).trackUpdate(x & 15, y, z & 15, newStates[i]);
+            }
+            if(oldStates[i].hasBlockEntity() && !oldStates[i].isOf(newStates[i].getBlock())) {
+                chunk.removeBlockEntity(pos);
+            }
+            lightingProvider.checkBlock(pos);
+            chunkManager.markForUpdate(pos);
+        }
+        for(i = 0; i < changed; i++) {
+            long packed = positions.getLong(i);
+            pos.set(BlockPos.unpackLongX(packed), BlockPos.unpackLongY(packed), BlockPos.unpackLongZ(packed));
+            if(!oldStates[i].isOf(newStates[i].getBlock())) {
+                oldStates[i].onStateReplaced(world, pos, newStates[i], false);
+                newStates[i].onBlockAdded(world, pos, oldStates[i], false);
+            }
+            if(newStates[i].hasBlockEntity() && newStates[i].getBlock() instanceof BlockEntityProvider provider) {
+                //same as WorldChunk.setBlockState: a new block entity, or the old one told about its new state
+                BlockEntity blockEntity = chunk.getBlockEntity(pos, WorldChunk.CreationType.CHECK);
+                if(blockEntity == null) {
+                    blockEntity = provider.createBlockEntity(pos.toImmutable(), newStates[i]);
+                    if(blockEntity != null) {
+                        chunk.addBlockEntity(blockEntity);
+                    }
+                }
+                else {
+                    blockEntity.setCachedState(newStates[i]);
+                }
+            }
+            BlockChangeListeners.onBlockChanged(world, pos, oldStates[i], newStates[i]);
+            changedPositions.add(packed);
+            changedOld.add(oldStates[i]);
+            changedNew.add(newStates[i]);
+        }
+        chunk.setShouldSave(true);
+        return changed;
+    }
+}
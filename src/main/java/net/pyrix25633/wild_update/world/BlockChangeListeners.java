@@ -0,0 +1,20 @@
+package net.pyrix25633.wild_update.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+
+/*
+ * Called for every block that changes on the server, both through WorldChunk.setBlockState
+ * and through the BlockBatchWriter. Everything here has to be cheap
+ */
+public class BlockChangeListeners {
+    public static void onBlockChanged(ServerWorld world, BlockPos pos, BlockState oldState, BlockState newState) {
+        ObstructedGrowthCache.get(world).onBlockChanged(pos.getX(), pos.getY(), pos.getZ());
+        BlockTimers.get(world).onBlockChanged(pos, newState);
+        SculkDeviceRegistry.get(world).onBlockChanged(pos, oldState, newState);
+        if(MangroveLeafDecay.removesSupport(world, pos, oldState, newState)) {
+            MangroveLeafDecay.get(world).onSupportRemoved(pos);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package net.pyrix25633.wild_update.world;
+
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.Packet;
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.pyrix25633.wild_update.WildUpdate;
+
+/*
+ * Block effects sent to the clients as an effect id, a position and a radius,
+ * the clients make the particles themselves instead of receiving every particle
+ */
+public class BlockEffects {
+    public static final Identifier CHANNEL = new Identifier(WildUpdate.MOD_ID, "block_effect");
+    public static final int MUD_CONVERTED = 0, MUD_DRIED = 1, MUD_AREA_CONVERTED = 2;
+
+    /*
+     * Function to send an effect to the players that see the chunk of pos, the packet is built once for all of them
+     */
+    public static void send(ServerWorld world, int effect, BlockPos pos, int radius) {
+        PacketByteBuf buf = PacketByteBufs.create();
+        buf.writeVarInt(effect);
+        buf.writeBlockPos(pos);
+        buf.writeByte(radius);
+        Packet<?> packet = ServerPlayNetworking.createS2CPacket(CHANNEL, buf);
+        for(ServerPlayerEntity player : PlayerLookup.tracking(world, pos)) {
+            player.networkHandler.sendPacket(packet);
+        }
+    }
+}
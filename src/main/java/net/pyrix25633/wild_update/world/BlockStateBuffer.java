@@ -0,0 +1,205 @@
+package net.pyrix25633.wild_update.world;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.WorldAccess;
+import net.minecraft.world.WorldView;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+
+import java.util.BitSet;
+
+/*
+ * Local copy of a box of block states: read once from the chunk sections, then planned against in memory.
+ * The cells written after the read are tracked and can be emitted as one diff.
+ * The ocean floor height of every column is copied from the heightmap too, so nothing has to scan down for it
+ */
+public class BlockStateBuffer {
+    private final int minX, minY, minZ, sizeX, sizeY, sizeZ;
+    private final BlockState[] states;
+    private final BlockState[] original;
+    private final BitSet changed;
+    private final int[] floors;
+
+    public BlockStateBuffer(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.sizeX = maxX - minX + 1;
+        this.sizeY = maxY - minY + 1;
+        this.sizeZ = maxZ - minZ + 1;
+        this.states = new BlockState[sizeX * sizeY * sizeZ];
+        this.original = new BlockState[states.length];
+        this.changed = new BitSet(states.length);
+        this.floors = new int[sizeX * sizeZ];
+    }
+
+    /*
+     * Function to read the whole box, one chunk section lookup for every section it touches
+     */
+    public void read(ServerWorld world) {
+        int maxX = minX + sizeX - 1, maxY = minY + sizeY - 1, maxZ = minZ + sizeZ - 1;
+        int sectionX, sectionY, sectionZ, x, y, z;
+        for(sectionX = ChunkSectionPos.getSectionCoord(minX); sectionX <= ChunkSectionPos.getSectionCoord(maxX); sectionX++) {
+            for(sectionZ = ChunkSectionPos.getSectionCoord(minZ); sectionZ <= ChunkSectionPos.getSectionCoord(maxZ); sectionZ++) {
+                WorldChunk chunk = world.getChunk(sectionX, sectionZ);
+                int fromX = Math.max(minX, ChunkSectionPos.getBlockCoord(sectionX));
+                int toX = Math.min(maxX, ChunkSectionPos.getBlockCoord(sectionX) + 15);
+                int fromZ = Math.max(minZ, ChunkSectionPos.getBlockCoord(sectionZ));
+                int toZ = Math.min(maxZ, ChunkSectionPos.getBlockCoord(sectionZ) + 15);
+                Heightmap oceanFloor = chunk.getHeightmap(Heightmap.Type.OCEAN_FLOOR);
+                for(x = fromX; x <= toX; x++) {
+                    for(z = fromZ; z <= toZ; z++) {
+                        floors[(x - minX) * sizeZ + (z - minZ)] = oceanFloor.get(x & 15, z & 15);
+                    }
+                }
+                for(sectionY = ChunkSectionPos.getSectionCoord(minY); sectionY <= ChunkSectionPos.getSectionCoord(maxY); sectionY++) {
+                    int fromY = Math.max(minY, ChunkSectionPos.getBlockCoord(sectionY));
+                    int toY = Math.min(maxY, ChunkSectionPos.getBlockCoord(sectionY) + 15);
+                    if(world.isOutOfHeightLimit(fromY)) {
+                        fill(fromX, fromY, fromZ, toX, toY, toZ, Blocks.VOID_AIR.getDefaultState());
+                        continue;
+                    }
+                    ChunkSection section = chunk.getSection(chunk.getSectionIndex(fromY));
+                    for(x = fromX; x <= toX; x++) {
+                        for(z = fromZ; z <= toZ; z++) {
+                            for(y = fromY; y <= toY; y++) {
+                                int index = index(x, y, z);
+                                states[index] = section.getBlockState(x & 15, y & 15, z & 15);
+                                original[index] = states[index];
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        changed.clear();
+    }
+
+    /*
+     * Function to read the whole box block by block, used where there are no loaded chunks to read from,
+     * such as the world generation regions, which keep their own floor heightmap
+     */
+    public void read(WorldView world, Heightmap.Type floorType) {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int index, x, z;
+        for(index = 0; index < states.length; index++) {
+            setToIndex(pos, index);
+            states[index] = world.getBlockState(pos);
+            original[index] = states[index];
+        }
+        for(x = 0; x < sizeX; x++) {
+            for(z = 0; z < sizeZ; z++) {
+                floors[x * sizeZ + z] = world.getTopY(floorType, minX + x, minZ + z);
+            }
+        }
+        changed.clear();
+    }
+
+    private void fill(int fromX, int fromY, int fromZ, int toX, int toY, int toZ, BlockState state) {
+        int x, y, z;
+        for(x = fromX; x <= toX; x++) {
+            for(z = fromZ; z <= toZ; z++) {
+                for(y = fromY; y <= toY; y++) {
+                    states[index(x, y, z)] = state;
+                    original[index(x, y, z)] = state;
+                }
+            }
+        }
+    }
+
+    public BlockBox getBox() {
+        return new BlockBox(minX, minY, minZ, minX + sizeX - 1, minY + sizeY - 1, minZ + sizeZ - 1);
+    }
+
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && y >= minY && z >= minZ && x < minX + sizeX && y < minY + sizeY && z < minZ + sizeZ;
+    }
+
+    private int index(int x, int y, int z) {
+        return ((x - minX) * sizeZ + (z - minZ)) * sizeY + (y - minY);
+    }
+
+    /*
+     * Function to get a block, cells outside the box read as void air
+     */
+    public BlockState getBlockState(int x, int y, int z) {
+        if(!contains(x, y, z)) {
+            return Blocks.VOID_AIR.getDefaultState();
+        }
+        return states[index(x, y, z)];
+    }
+
+    /*
+     * Function to get the first y above the ocean floor of a column, as it was read, never below the box
+     */
+    public int getFloor(int x, int z) {
+        if(x < minX || z < minZ || x >= minX + sizeX || z >= minZ + sizeZ) {
+            return minY;
+        }
+        return Math.max(floors[(x - minX) * sizeZ + (z - minZ)], minY);
+    }
+
+    public void setBlockState(int x, int y, int z, BlockState state) {
+        if(contains(x, y, z)) {
+            int index = index(x, y, z);
+            states[index] = state;
+            changed.set(index, state != original[index]);
+        }
+    }
+
+    public boolean hasChanges() {
+        return !changed.isEmpty();
+    }
+
+    /*
+     * Function to know if the live world still has, in every changed cell, the block that was read
+     */
+    public boolean matches(ServerWorld world) {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int index;
+        for(index = changed.nextSetBit(0); index >= 0; index = changed.nextSetBit(index + 1)) {
+            setToIndex(pos, index);
+            if(world.getBlockState(pos) != original[index]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void setToIndex(BlockPos.Mutable pos, int index) {
+        int y = index % sizeY;
+        int z = (index / sizeY) % sizeZ;
+        int x = index / (sizeY * sizeZ);
+        pos.set(minX + x, minY + y, minZ + z);
+    }
+
+    /*
+     * Function to emit every changed cell into a batch writer
+     */
+    public void writeChanges(BlockBatchWriter writer) {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int index;
+        for(index = changed.nextSetBit(0); index >= 0; index = changed.nextSetBit(index + 1)) {
+            setToIndex(pos, index);
+            writer.setBlockState(pos, states[index]);
+        }
+    }
+
+    /*
+     * Function to set every changed cell directly in the world, used by world generation
+     */
+    public void writeChanges(WorldAccess world, int flags) {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int index;
+        for(index = changed.nextSetBit(0); index >= 0; index = changed.nextSetBit(index + 1)) {
+            setToIndex(pos, index);
+            world.setBlockState(pos, states[index], flags);
+        }
+    }
+}
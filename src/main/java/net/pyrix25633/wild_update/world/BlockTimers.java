@@ -0,0 +1,187 @@
+package net.pyrix25633.wild_update.world;
+
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.PointedDripstoneBlock;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.BlockView;
+import net.minecraft.world.GameRules;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+import net.pyrix25633.wild_update.block.ModBlocks;
+import net.pyrix25633.wild_update.block.custom.MangrovePropagule;
+import net.pyrix25633.wild_update.block.custom.MudBlock;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/*
+ * Timers that replace the random ticks of mud and propagules: a block only gets a timer when something
+ * can actually happen to it, and the delays are exponential with the same mean as the random ticks they replace.
+ * The timers are not saved, they are armed again when their chunk is loaded
+ */
+public class BlockTimers {
+    private static final Map<RegistryKey<World>, BlockTimers> WORLDS = new HashMap<>();
+    //a block gets a random tick every 4096 / randomTickSpeed ticks on average
+    private static final double RANDOM_TICK_PERIOD = 16 * 16 * 16;
+    //ticks to wait before looking again when random ticks are turned off
+    private static final int PAUSED_DELAY = 1200;
+
+    private final ServerWorld world;
+    private final HashedTimerWheel mudDrying = new HashedTimerWheel();
+    private final HashedTimerWheel propaguleGrowth = new HashedTimerWheel();
+    private final LongArrayFIFOQueue dueMud = new LongArrayFIFOQueue();
+    private final LongArrayFIFOQueue duePropagules = new LongArrayFIFOQueue();
+
+    private BlockTimers(ServerWorld world) {
+        this.world = world;
+    }
+
+    public static BlockTimers get(ServerWorld world) {
+        return WORLDS.computeIfAbsent(world.getRegistryKey(), key -> new BlockTimers(world));
+    }
+
+    public static void clear() {
+        WORLDS.clear();
+    }
+
+    /*
+     * Function to get an exponentially distributed delay with the mean of a random tick, at least one tick
+     */
+    private long nextDelay(Random random) {
+        int randomTickSpeed = world.getGameRules().getInt(GameRules.RANDOM_TICK_SPEED);
+        if(randomTickSpeed <= 0) {
+            return PAUSED_DELAY;
+        }
+        double delay = -Math.log(1.0 - random.nextDouble()) * RANDOM_TICK_PERIOD / randomTickSpeed;
+        return Math.max(1, (long)delay);
+    }
+
+    /*
+     * Function to know if mud at pos sits on a dripstone block with a pointed dripstone hanging under it
+     */
+    public static boolean isDripstoneSetup(BlockView world, BlockPos pos) {
+        return world.getBlockState(pos.down()).isOf(Blocks.DRIPSTONE_BLOCK) &&
+                world.getBlockState(pos.down(2)) == Blocks.POINTED_DRIPSTONE.getDefaultState()
+                        .with(PointedDripstoneBlock.VERTICAL_DIRECTION, Direction.DOWN);
+    }
+
+    private void armMud(BlockView view, BlockPos pos) {
+        long key = pos.asLong();
+        if(!mudDrying.isArmed(key) && view.getBlockState(pos).isOf(ModBlocks.MUD_BLOCK) && isDripstoneSetup(view, pos)) {
+            mudDrying.schedule(key, world.getTime() + nextDelay(world.random));
+        }
+    }
+
+    private void armPropagule(BlockPos pos, BlockState state) {
+        long key = pos.asLong();
+        if(!propaguleGrowth.isArmed(key) && MangrovePropagule.canChange(state)) {
+            propaguleGrowth.schedule(key, world.getTime() + nextDelay(world.random));
+        }
+    }
+
+    /*
+     * Function to arm the timers a block change makes possible: a propagule, or any of the three blocks of a mud drying setup
+     */
+    public void onBlockChanged(BlockPos pos, BlockState newState) {
+        if(newState.isOf(ModBlocks.MANGROVE_PROPAGULE)) {
+            armPropagule(pos, newState);
+        }
+        else if(newState.isOf(ModBlocks.MUD_BLOCK)) {
+            armMud(world, pos);
+        }
+        else if(newState.isOf(Blocks.DRIPSTONE_BLOCK)) {
+            armMud(world, pos.up());
+        }
+        else if(newState.isOf(Blocks.POINTED_DRIPSTONE)) {
+            armMud(world, pos.up(2));
+        }
+    }
+
+    /*
+     * Function to arm the timers of a chunk that has just been loaded, only the sections holding mud or propagules are walked
+     */
+    public void onChunkLoad(WorldChunk chunk) {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        ChunkSection[] sections = chunk.getSectionArray();
+        int i, x, y, z;
+        for(i = 0; i < sections.length; i++) {
+            ChunkSection section = sections[i];
+            if(section.isEmpty() || !section.hasAny(state -> state.isOf(ModBlocks.MUD_BLOCK) ||
+                    state.isOf(ModBlocks.MANGROVE_PROPAGULE))) {
+                continue;
+            }
+            int baseY = ChunkSectionPos.getBlockCoord(chunk.sectionIndexToCoord(i));
+            for(y = 0; y < 16; y++) {
+                for(z = 0; z < 16; z++) {
+                    for(x = 0; x < 16; x++) {
+                        BlockState state = section.getBlockState(x, y, z);
+                        pos.set(chunk.getPos().getStartX() + x, baseY + y, chunk.getPos().getStartZ() + z);
+                        if(state.isOf(ModBlocks.MANGROVE_PROPAGULE)) {
+                            armPropagule(pos, state);
+                        }
+                        else if(state.isOf(ModBlocks.MUD_BLOCK)) {
+                            //the setup is in the same column, the chunk is read directly while it is being loaded
+                            armMud(chunk, pos);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Function to move the wheels to the current tick, then handle the due timers until the deadline.
+     * Due timers wait in their own queues, so none is lost when the budget runs out. Returns true if some are still waiting
+     */
+    public boolean work(long deadline) {
+        long now = world.getTime();
+        mudDrying.advance(now, dueMud::enqueue);
+        propaguleGrowth.advance(now, duePropagules::enqueue);
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        while(!dueMud.isEmpty() && System.nanoTime() < deadline) {
+            pos.set(dueMud.dequeueLong());
+            if(!LoadedChunks.isLoaded(world, pos)) {
+                continue; //armed again when the chunk loads
+            }
+            BlockState state = world.getBlockState(pos);
+            if(!(state.getBlock() instanceof MudBlock mud) || !isDripstoneSetup(world, pos)) {
+                continue;
+            }
+            if(world.getGameRules().getInt(GameRules.RANDOM_TICK_SPEED) > 0) {
+                mud.dry(world, pos.toImmutable());
+            }
+            else {
+                //random ticks are off: the mud keeps its timer, like it would wait for a random tick
+                mudDrying.schedule(pos.asLong(), now + nextDelay(world.random));
+            }
+        }
+        while(!duePropagules.isEmpty() && System.nanoTime() < deadline) {
+            long key = duePropagules.dequeueLong();
+            pos.set(key);
+            if(!LoadedChunks.isLoaded(world, pos)) {
+                continue;
+            }
+            BlockState state = world.getBlockState(pos);
+            if(!MangrovePropagule.canChange(state)) {
+                continue;
+            }
+            if(world.getGameRules().getInt(GameRules.RANDOM_TICK_SPEED) > 0) {
+                ((MangrovePropagule)state.getBlock()).onTimer(state, world, pos.toImmutable(), world.random);
+            }
+            //still a propagule that can change: it keeps its timer
+            state = world.getBlockState(pos);
+            if(MangrovePropagule.canChange(state)) {
+                propaguleGrowth.schedule(key, now + nextDelay(world.random));
+            }
+        }
+        return !dueMud.isEmpty() || !duePropagules.isEmpty();
+    }
+}
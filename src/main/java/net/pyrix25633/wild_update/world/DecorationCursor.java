@@ -0,0 +1,136 @@
+package net.pyrix25633.wild_update.world;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.state.property.Properties;
+import net.minecraft.tag.BlockTags;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.WorldAccess;
+import net.pyrix25633.wild_update.block.BlockStateIndex;
+import net.pyrix25633.wild_update.block.ModBlocks;
+import net.pyrix25633.wild_update.block.custom.MangrovePropagule;
+
+import java.util.Random;
+
+/*
+ * Vines and hanging propagules still to be placed around a grown tree: a list of candidate cells
+ * and how far the tree got through it. Every step looks at a single cell of the live world
+ */
+public class DecorationCursor {
+    public static final byte PROPAGULE = 1, VINE = 2;
+
+    private final long[] cells;
+    private final byte[] kinds;
+    private final long seed;
+    private int index;
+    private final Random random;
+
+    public DecorationCursor(long[] cells, byte[] kinds, long seed) {
+        this(cells, kinds, seed, 0);
+    }
+
+    private DecorationCursor(long[] cells, byte[] kinds, long seed, int index) {
+        this.cells = cells;
+        this.kinds = kinds;
+        this.seed = seed;
+        this.index = index;
+        //a cursor loaded from disk does not get the same decorations, only the same kind of them
+        this.random = new Random(seed ^ index);
+    }
+
+    public static DecorationCursor fromNbt(NbtCompound nbt) {
+        return new DecorationCursor(nbt.getLongArray("Cells"), nbt.getByteArray("Kinds"), nbt.getLong("Seed"),
+                nbt.getInt("Index"));
+    }
+
+    public NbtCompound writeNbt(NbtCompound nbt) {
+        nbt.putLongArray("Cells", cells);
+        nbt.putByteArray("Kinds", kinds);
+        nbt.putLong("Seed", seed);
+        nbt.putInt("Index", index);
+        return nbt;
+    }
+
+    public boolean isDone() {
+        return index >= cells.length;
+    }
+
+    /*
+     * Function to get the cell the next step looks at
+     */
+    public BlockPos.Mutable getPos(BlockPos.Mutable pos) {
+        return pos.set(cells[index]);
+    }
+
+    /*
+     * Function to decorate the next cell, if it still fits
+     */
+    public void step(WorldAccess world, BlockPos.Mutable pos) {
+        getPos(pos);
+        byte kind = kinds[index++];
+        BlockState state = world.getBlockState(pos);
+        if(!BlockStateIndex.MANGROVE_REPLACEABLE.contains(state) || state.isIn(BlockTags.LEAVES)) {
+            return;
+        }
+        BlockState toPlace = getDecorationToPlace(world, pos, kind, state.isOf(Blocks.WATER));
+        if(toPlace != null) {
+            world.setBlockState(pos, toPlace, Block.NOTIFY_ALL);
+        }
+    }
+
+    /*
+     * Function to decorate every cell at once, used by world generation
+     */
+    public void runAll(WorldAccess world) {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        while(!isDone()) {
+            step(world, pos);
+        }
+    }
+
+    /*
+     * Function to get the decoration to place on a candidate cell, null if nothing
+     */
+    private BlockState getDecorationToPlace(WorldAccess world, BlockPos pos, byte kind, boolean waterlogged) {
+        if((kind & PROPAGULE) != 0 && world.getBlockState(pos.up()).isOf(ModBlocks.MANGROVE_LEAVES)) {
+            if(random.nextInt(10) == 1) { //propagule
+                return ModBlocks.MANGROVE_PROPAGULE.getDefaultState().with(MangrovePropagule.HANGING, true)
+                        .with(MangrovePropagule.MATURE, random.nextInt(4) == 1)
+                        .with(MangrovePropagule.WATERLOGGED, waterlogged);
+            }
+        }
+        if((kind & VINE) != 0 && random.nextInt(12) == 1) {
+            return assembleVineState(world, pos);
+        }
+        return null;
+    }
+
+    /*
+     * Function to know if a vine can hang on the block
+     */
+    private static boolean supportsVine(BlockState state) {
+        return state.isOf(ModBlocks.MANGROVE_LEAVES) || state.isOf(ModBlocks.MANGROVE_LOG);
+    }
+
+    /*
+     * Function to assemble the vine state, null if there is nothing to hang on
+     */
+    private static BlockState assembleVineState(WorldAccess world, BlockPos pos) {
+        boolean east = supportsVine(world.getBlockState(pos.east()));
+        boolean north = supportsVine(world.getBlockState(pos.north()));
+        boolean west = supportsVine(world.getBlockState(pos.west()));
+        boolean south = supportsVine(world.getBlockState(pos.south()));
+        boolean up = supportsVine(world.getBlockState(pos.up()));
+        if(!(east || north || west || south || up)) {
+            return null;
+        }
+        return Blocks.VINE.getDefaultState()
+                .with(Properties.EAST, east)
+                .with(Properties.NORTH, north)
+                .with(Properties.WEST, west)
+                .with(Properties.SOUTH, south)
+                .with(Properties.UP, up);
+    }
+}
@@ -0,0 +1,78 @@
+package net.pyrix25633.wild_update.world;
+
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import net.minecraft.entity.ExperienceOrbEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.GameRules;
+import net.minecraft.world.World;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Experience dropped by broken blocks, added up chunk by chunk during a tick and spawned at the end of it,
+ * so a machine breaking hundreds of blocks makes a few merged orbs instead of one orb per block
+ */
+public class ExperienceCoalescer {
+    private static final Map<RegistryKey<World>, ExperienceCoalescer> WORLDS = new HashMap<>();
+
+    private final ServerWorld world;
+    private final Long2IntOpenHashMap amounts = new Long2IntOpenHashMap();
+    //the orbs of a chunk appear where its last block was broken
+    private final Long2LongOpenHashMap positions = new Long2LongOpenHashMap();
+
+    private ExperienceCoalescer(ServerWorld world) {
+        this.world = world;
+    }
+
+    public static ExperienceCoalescer get(ServerWorld world) {
+        return WORLDS.computeIfAbsent(world.getRegistryKey(), key -> new ExperienceCoalescer(world));
+    }
+
+    public static void clear() {
+        WORLDS.clear();
+    }
+
+    /*
+     * Function to drop experience like Block.dropExperience, but later and together with the rest of the chunk
+     */
+    public void add(BlockPos pos, int amount) {
+        if(amount <= 0 || !world.getGameRules().getBoolean(GameRules.DO_TILE_DROPS)) {
+            return;
+        }
+        long key = ChunkPos.toLong(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()));
+        amounts.addTo(key, amount);
+        positions.put(key, pos.asLong());
+    }
+
+    /*
+     * Function to spawn the experience of this tick, ExperienceOrbEntity.spawn splits every amount in a few orbs
+     */
+    public void flush() {
+        if(amounts.isEmpty()) {
+            return;
+        }
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for(Long2IntMap.Entry entry : amounts.long2IntEntrySet()) {
+            pos.set(positions.get(entry.getLongKey()));
+            if(LoadedChunks.isLoaded(world, pos)) {
+                ExperienceOrbEntity.spawn(world, Vec3d.ofCenter(pos), entry.getIntValue());
+            }
+        }
+        amounts.clear();
+        positions.clear();
+    }
+
+    public static void flushAll() {
+        for(ExperienceCoalescer coalescer : WORLDS.values()) {
+            coalescer.flush();
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package net.pyrix25633.wild_update.world;
+
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.LeavesBlock;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.Heightmap;
+import net.pyrix25633.wild_update.block.BlockStateIndex;
+import net.pyrix25633.wild_update.block.ModBlocks;
+import net.pyrix25633.wild_update.block.custom.MangroveLeavesBlock;
+import net.pyrix25633.wild_update.block.custom.MangrovePropagule;
+
+import java.util.Random;
+
+/*
+ * Giant mangrove growing from four propagules in a square. The shape is procedural and sparse:
+ * only the cells that get a block are planned and, on commit, only those cells are read back from the world,
+ * so the cost follows the number of blocks placed and not the volume around the tree
+ */
+public class GiantMangroveTree {
+    public static final int RADIUS = 13, HEIGHT = 26;
+    private static final int MIN_TRUNK = 14, MAX_TRUNK = 19;
+    //how far above the anchor the 2x2 trunk can reach, a block there can make a commit fail
+    public static final int MAX_TRUNK_TOP = MangroveTreePlanner.MAX_WATER_DEPTH + 1 + MAX_TRUNK;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final BlockPos anchor;
+    private final int waterDepth;
+    //planned cells, logs win over roots and roots over leaves and decorations
+    private final Long2ObjectOpenHashMap<BlockState> blocks = new Long2ObjectOpenHashMap<>();
+    private final LongArrayList trunk = new LongArrayList();
+    //ends of the prop roots, on commit they go down to the ocean floor read from the heightmap
+    private final LongArrayList legs = new LongArrayList();
+
+    public GiantMangroveTree(BlockPos anchor, int waterDepth) {
+        this.anchor = anchor;
+        this.waterDepth = waterDepth;
+    }
+
+    /*
+     * Function to find the north-west propagule of a square of four growing propagules around pos, null if there is none
+     */
+    public static BlockPos findAnchor(ServerWorld world, BlockPos pos) {
+        int dx, dz;
+        for(dx = 0; dx >= -1; dx--) {
+            for(dz = 0; dz >= -1; dz--) {
+                BlockPos corner = pos.add(dx, 0, dz);
+                if(isSquare(world, corner)) {
+                    return corner;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSquare(ServerWorld world, BlockPos corner) {
+        return MangroveGrowthQueue.isGrowingPropagule(world.getBlockState(corner)) &&
+                MangroveGrowthQueue.isGrowingPropagule(world.getBlockState(corner.east())) &&
+                MangroveGrowthQueue.isGrowingPropagule(world.getBlockState(corner.south())) &&
+                MangroveGrowthQueue.isGrowingPropagule(world.getBlockState(corner.south().east()));
+    }
+
+    /*
+     * Function to get the box the tree can reach from its anchor
+     */
+    public static BlockBox getFootprint(BlockPos anchor) {
+        return new BlockBox(anchor.getX() - RADIUS, anchor.getY() - MangroveTreePlanner.MAX_ROOT_DEPTH,
+                anchor.getZ() - RADIUS, anchor.getX() + 1 + RADIUS,
+                anchor.getY() + MangroveTreePlanner.MAX_WATER_DEPTH + HEIGHT, anchor.getZ() + 1 + RADIUS);
+    }
+
+    public BlockPos getAnchor() {
+        return anchor;
+    }
+
+    /*
+     * Function to plan the shape, it never reads the world so it can run on any thread.
+     * Returns the cursor of the decorations, placed later against the live world
+     */
+    public DecorationCursor plan(Random random) {
+        int x = anchor.getX(), z = anchor.getZ();
+        int baseY = anchor.getY() + waterDepth + 1;
+        int trunkHeight = MIN_TRUNK + random.nextInt(MAX_TRUNK - MIN_TRUNK + 1);
+        int topY = baseY + trunkHeight;
+        int i, tempY;
+        //trunk: 2x2 logs above the water, roots from the propagules up to it
+        for(tempY = anchor.getY(); tempY <= topY; tempY++) {
+            for(i = 0; i < 4; i++) {
+                long packed = BlockPos.asLong(x + (i & 1), tempY, z + (i >> 1));
+                trunk.add(packed);
+                blocks.put(packed, tempY < baseY ? ModBlocks.MANGROVE_ROOTS.getDefaultState() :
+                        ModBlocks.MANGROVE_LOG.getDefaultState());
+            }
+        }
+        //prop roots arching out of the trunk
+        int roots = 8 + random.nextInt(5);
+        for(i = 0; i < roots; i++) {
+            float angle = (i + random.nextFloat() * 0.6f) * (float)(Math.PI * 2) / roots;
+            planRoot(angle, baseY + 1 + random.nextInt(3), 4 + random.nextInt(5));
+        }
+        //branches ending in the canopy blobs
+        int branches = 3 + random.nextInt(3);
+        float startAngle = random.nextFloat() * (float)(Math.PI * 2);
+        for(i = 0; i < branches; i++) {
+            float angle = startAngle + (i + random.nextFloat() * 0.5f) * (float)(Math.PI * 2) / branches;
+            planBranch(angle, topY - 4 - random.nextInt(4), 4 + random.nextInt(3), random);
+        }
+        planCanopy(x + 1.0, topY + 1, z + 1.0, 4, random);
+        resolveLeafDistances();
+        return planDecorations(random);
+    }
+
+    /*
+     * Function to plan an arching root leaving the trunk at startY and landing length blocks away
+     */
+    private void planRoot(float angle, int startY, int length) {
+        double cx = anchor.getX() + 1.0, cz = anchor.getZ() + 1.0;
+        double dirX = MathHelper.cos(angle), dirZ = MathHelper.sin(angle);
+        int waterY = anchor.getY() + waterDepth;
+        int step, lastY = startY, lastX = Integer.MIN_VALUE, lastZ = Integer.MIN_VALUE;
+        for(step = 1; step <= length; step++) {
+            int rootX = MathHelper.floor(cx + dirX * (step + 1));
+            int rootZ = MathHelper.floor(cz + dirZ * (step + 1));
+            //a small rise near the trunk, then down towards the water
+            double t = (double)step / length;
+            int rootY = startY + (int)Math.round(1.5 * Math.sin(t * Math.PI) - t * t * (startY - waterY));
+            if(rootX == lastX && rootZ == lastZ) {
+                continue;
+            }
+            int fromY = Math.min(rootY, lastY), toY = Math.max(rootY, lastY);
+            int tempY;
+            for(tempY = fromY; tempY <= toY; tempY++) {
+                putIfAbsent(rootX, tempY, rootZ, ModBlocks.MANGROVE_ROOTS.getDefaultState());
+            }
+            lastX = rootX;
+            lastZ = rootZ;
+            lastY = rootY;
+        }
+        if(lastX != Integer.MIN_VALUE) {
+            legs.add(BlockPos.asLong(lastX, lastY, lastZ));
+        }
+    }
+
+    /*
+     * Function to plan a branch going up and out of the trunk, with a blob of leaves at its end
+     */
+    private void planBranch(float angle, int startY, int length, Random random) {
+        double cx = anchor.getX() + 1.0, cz = anchor.getZ() + 1.0;
+        double dirX = MathHelper.cos(angle), dirZ = MathHelper.sin(angle);
+        int step;
+        double branchX = cx, branchZ = cz;
+        int branchY = startY;
+        for(step = 1; step <= length; step++) {
+            branchX = cx + dirX * (step + 1);
+            branchZ = cz + dirZ * (step + 1);
+            branchY = startY + (step + 1) / 2;
+            blocks.put(BlockPos.asLong(MathHelper.floor(branchX), branchY, MathHelper.floor(branchZ)),
+                    ModBlocks.MANGROVE_LOG.getDefaultState());
+        }
+        planCanopy(branchX, branchY + 1, branchZ, 3 + random.nextInt(2), random);
+    }
+
+    /*
+     * Function to plan a flat ellipsoid of leaves, only its own cells are visited
+     */
+    private void planCanopy(double centerX, int centerY, double centerZ, int radius, Random random) {
+        int x, y, z;
+        int minX = MathHelper.floor(centerX - radius), maxX = MathHelper.floor(centerX + radius);
+        int minZ = MathHelper.floor(centerZ - radius), maxZ = MathHelper.floor(centerZ + radius);
+        for(y = -1; y <= 2; y++) {
+            //narrower at the top and at the bottom
+            double layerRadius = radius - (y == 2 ? 1.5 : y == -1 ? 1 : 0);
+            for(x = minX; x <= maxX; x++) {
+                for(z = minZ; z <= maxZ; z++) {
+                    double distX = x + 0.5 - centerX, distZ = z + 0.5 - centerZ;
+                    double distance = distX * distX + distZ * distZ;
+                    if(distance > layerRadius * layerRadius) {
+                        continue;
+                    }
+                    //holes only on the outer shell
+                    if(distance > (layerRadius - 1) * (layerRadius - 1) && random.nextInt(6) == 0) {
+                        continue;
+                    }
+                    putIfAbsent(x, centerY + y, z, ModBlocks.MANGROVE_LEAVES.getDefaultState());
+                }
+            }
+        }
+    }
+
+    /*
+     * Function to collect the cells for hanging propagules and vines around the planned leaves:
+     * the cell under every leaf and, for half of them, one side cell
+     */
+    private DecorationCursor planDecorations(Random random) {
+        LongArrayList cells = new LongArrayList();
+        ByteArrayList kinds = new ByteArrayList();
+        ObjectIterator<Long2ObjectMap.Entry<BlockState>> iterator = blocks.long2ObjectEntrySet().fastIterator();
+        while(iterator.hasNext()) {
+            Long2ObjectMap.Entry<BlockState> entry = iterator.next();
+            if(!entry.getValue().isOf(ModBlocks.MANGROVE_LEAVES)) {
+                continue;
+            }
+            long leaf = entry.getLongKey();
+            long below = BlockPos.offset(leaf, Direction.DOWN);
+            if(!blocks.containsKey(below)) {
+                cells.add(below);
+                kinds.add(DecorationCursor.PROPAGULE);
+            }
+            if(random.nextInt(2) == 0) {
+                long side = BlockPos.offset(leaf, Direction.fromHorizontal(random.nextInt(4)));
+                if(!blocks.containsKey(side)) {
+                    cells.add(side);
+                    kinds.add(DecorationCursor.VINE);
+                }
+            }
+        }
+        return new DecorationCursor(cells.toLongArray(), kinds.toByteArray(), random.nextLong());
+    }
+
+    /*
+     * Function to resolve the leaves distance with one breadth first search from the planned logs
+     */
+    private void resolveLeafDistances() {
+        LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+        ObjectIterator<Long2ObjectMap.Entry<BlockState>> iterator = blocks.long2ObjectEntrySet().fastIterator();
+        while(iterator.hasNext()) {
+            Long2ObjectMap.Entry<BlockState> entry = iterator.next();
+            if(entry.getValue().isOf(ModBlocks.MANGROVE_LOG)) {
+                queue.enqueue(entry.getLongKey());
+            }
+        }
+        while(!queue.isEmpty()) {
+            long packed = queue.dequeueLong();
+            int distance = MangroveLeavesBlock.getDistance(blocks.get(packed)) + 1;
+            for(Direction direction : DIRECTIONS) {
+                long neighbor = BlockPos.offset(packed, direction);
+                BlockState state = blocks.get(neighbor);
+                if(state != null && state.isOf(ModBlocks.MANGROVE_LEAVES) && state.get(LeavesBlock.DISTANCE) > distance) {
+                    blocks.put(neighbor, state.with(LeavesBlock.DISTANCE, distance));
+                    if(distance < MangroveLeavesBlock.MAX_DISTANCE - 1) {
+                        queue.enqueue(neighbor);
+                    }
+                }
+            }
+        }
+    }
+
+    private void putIfAbsent(int x, int y, int z, BlockState state) {
+        blocks.putIfAbsent(BlockPos.asLong(x, y, z), state);
+    }
+
+    /*
+     * Function to know if the four propagules are still there
+     */
+    public boolean hasPropagules(ServerWorld world) {
+        return isSquare(world, anchor);
+    }
+
+    /*
+     * Function to write the planned cells that can still be replaced, returns false if the trunk is obstructed.
+     * Only the planned cells and the cells under the root legs are read
+     */
+    public boolean commit(ServerWorld world) {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int i;
+        for(i = 0; i < trunk.size(); i++) {
+            if(!BlockStateIndex.MANGROVE_REPLACEABLE.contains(world.getBlockState(pos.set(trunk.getLong(i))))) {
+                return false;
+            }
+        }
+        BlockBatchWriter writer = new BlockBatchWriter(world);
+        ObjectIterator<Long2ObjectMap.Entry<BlockState>> iterator = blocks.long2ObjectEntrySet().fastIterator();
+        while(iterator.hasNext()) {
+            Long2ObjectMap.Entry<BlockState> entry = iterator.next();
+            pos.set(entry.getLongKey());
+            BlockState live = world.getBlockState(pos);
+            if(BlockStateIndex.MANGROVE_REPLACEABLE.contains(live)) {
+                writer.setBlockState(pos, withWater(entry.getValue(), live));
+            }
+        }
+        int minY = anchor.getY() - MangroveTreePlanner.MAX_ROOT_DEPTH;
+        for(i = 0; i < legs.size(); i++) {
+            long leg = legs.getLong(i);
+            int x = BlockPos.unpackLongX(leg), z = BlockPos.unpackLongZ(leg);
+            int floor = Math.max(world.getTopY(Heightmap.Type.OCEAN_FLOOR, x, z), minY);
+            int tempY;
+            for(tempY = BlockPos.unpackLongY(leg) - 1; tempY >= floor; tempY--) {
+                BlockState live = world.getBlockState(pos.set(x, tempY, z));
+                if(!BlockStateIndex.MANGROVE_REPLACEABLE.contains(live)) {
+                    break;
+                }
+                writer.setBlockState(pos, withWater(ModBlocks.MANGROVE_ROOTS.getDefaultState(), live));
+            }
+        }
+        writer.apply();
+        return true;
+    }
+
+    /*
+     * Function to keep the water of the replaced block in roots and hanging propagules
+     */
+    private static BlockState withWater(BlockState state, BlockState replaced) {
+        if(!state.isOf(ModBlocks.MANGROVE_ROOTS) && !state.isOf(ModBlocks.MANGROVE_PROPAGULE)) {
+            return state;
+        }
+        boolean waterlogged = replaced.isOf(Blocks.WATER) ||
+                (replaced.isOf(ModBlocks.MANGROVE_PROPAGULE) && replaced.get(MangrovePropagule.WATERLOGGED));
+        return state.with(MangrovePropagule.WATERLOGGED, waterlogged);
+    }
+}
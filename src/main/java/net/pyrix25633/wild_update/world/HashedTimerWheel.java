@@ -0,0 +1,98 @@
+package net.pyrix25633.wild_update.world;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.function.LongConsumer;
+
+/*
+ * Hashed timer wheel keyed by a long, usually a packed BlockPos. Every timer sits in the slot of its deadline tick,
+ * so advancing one tick only looks at one slot. A key has at most one timer, arming it again moves it
+ */
+public class HashedTimerWheel {
+    private static final int SLOTS = 1024, MASK = SLOTS - 1;
+
+    private final LongArrayList[] keys = new LongArrayList[SLOTS];
+    private final LongArrayList[] deadlines = new LongArrayList[SLOTS];
+    //deadline of the live timer of every key, stale slot entries are dropped when their slot comes
+    private final Long2LongOpenHashMap armed = new Long2LongOpenHashMap();
+    private long currentTick = Long.MIN_VALUE;
+
+    public HashedTimerWheel() {
+        int i;
+        for(i = 0; i < SLOTS; i++) {
+            keys[i] = new LongArrayList();
+            deadlines[i] = new LongArrayList();
+        }
+        armed.defaultReturnValue(Long.MIN_VALUE);
+    }
+
+    /*
+     * Function to arm the timer of a key, it fires in the first advance that reaches the deadline
+     */
+    public void schedule(long key, long deadline) {
+        armed.put(key, deadline);
+        int slot = (int)(deadline & MASK);
+        keys[slot].add(key);
+        deadlines[slot].add(deadline);
+    }
+
+    public boolean isArmed(long key) {
+        return armed.containsKey(key);
+    }
+
+    public void cancel(long key) {
+        armed.remove(key);
+    }
+
+    public int size() {
+        return armed.size();
+    }
+
+    /*
+     * Function to fire every timer due up to now, the callback can arm new timers
+     */
+    public void advance(long now, LongConsumer fired) {
+        if(currentTick == Long.MIN_VALUE || now - currentTick > SLOTS) {
+            //first advance or a long jump: every slot is looked at once
+            currentTick = now - SLOTS;
+        }
+        long tick;
+        for(tick = currentTick + 1; tick <= now; tick++) {
+            expire((int)(tick & MASK), now, fired);
+        }
+        currentTick = now;
+    }
+
+    private void expire(int slot, long now, LongConsumer fired) {
+        LongArrayList slotKeys = keys[slot], slotDeadlines = deadlines[slot];
+        int i = 0;
+        while(i < slotKeys.size()) {
+            long deadline = slotDeadlines.getLong(i);
+            if(deadline > now) {
+                i++; //a later round of the wheel
+                continue;
+            }
+            long key = slotKeys.getLong(i);
+            //swap with the last entry, the order inside a slot does not matter
+            int last = slotKeys.size() - 1;
+            slotKeys.set(i, slotKeys.getLong(last));
+            slotDeadlines.set(i, slotDeadlines.getLong(last));
+            slotKeys.removeLong(last);
+            slotDeadlines.removeLong(last);
+            if(armed.get(key) == deadline) {
+                armed.remove(key);
+                fired.accept(key);
+            }
+        }
+    }
+
+    public void clear() {
+        int i;
+        for(i = 0; i < SLOTS; i++) {
+            keys[i].clear();
+            deadlines[i].clear();
+        }
+        armed.clear();
+    }
+}
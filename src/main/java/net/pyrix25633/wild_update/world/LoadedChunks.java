@@ -0,0 +1,34 @@
+package net.pyrix25633.wild_update.world;
+
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+
+/*
+ * Checks that chunks are already loaded at FULL status, without ever loading or generating them
+ */
+public class LoadedChunks {
+    public static boolean isLoaded(ServerWorld world, int chunkX, int chunkZ) {
+        return world.getChunkManager().getWorldChunk(chunkX, chunkZ) != null;
+    }
+
+    public static boolean isLoaded(ServerWorld world, BlockPos pos) {
+        return isLoaded(world, ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ()));
+    }
+
+    /*
+     * Function to know if every chunk touched by the box is loaded
+     */
+    public static boolean areLoaded(ServerWorld world, BlockBox box) {
+        int chunkX, chunkZ;
+        for(chunkX = ChunkSectionPos.getSectionCoord(box.getMinX()); chunkX <= ChunkSectionPos.getSectionCoord(box.getMaxX()); chunkX++) {
+            for(chunkZ = ChunkSectionPos.getSectionCoord(box.getMinZ()); chunkZ <= ChunkSectionPos.getSectionCoord(box.getMaxZ()); chunkZ++) {
+                if(!isLoaded(world, chunkX, chunkZ)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,94 @@
+package net.pyrix25633.wild_update.world;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.PersistentState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Per-world list of the decoration cursors of grown trees. Every few ticks each cursor looks at one more cell,
+ * so vines and hanging propagules fill in over the following minutes instead of in the growth tick
+ */
+public class MangroveDecorations extends PersistentState {
+    private static final String ID = "wild_update_mangrove_decorations";
+    //ticks between two steps of the same cursor
+    private static final int STEP_INTERVAL = 4;
+
+    private final List<DecorationCursor> cursors = new ArrayList<>();
+    private int next;
+    private long lastTick = -1;
+    private int stepsLeft;
+
+    public static MangroveDecorations get(ServerWorld world) {
+        return world.getPersistentStateManager().getOrCreate(MangroveDecorations::fromNbt, MangroveDecorations::new, ID);
+    }
+
+    private static MangroveDecorations fromNbt(NbtCompound nbt) {
+        MangroveDecorations decorations = new MangroveDecorations();
+        NbtList list = nbt.getList("Cursors", NbtElement.COMPOUND_TYPE);
+        int i;
+        for(i = 0; i < list.size(); i++) {
+            decorations.cursors.add(DecorationCursor.fromNbt(list.getCompound(i)));
+        }
+        return decorations;
+    }
+
+    @Override
+    public NbtCompound writeNbt(NbtCompound nbt) {
+        NbtList list = new NbtList();
+        for(DecorationCursor cursor : cursors) {
+            list.add(cursor.writeNbt(new NbtCompound()));
+        }
+        nbt.put("Cursors", list);
+        return nbt;
+    }
+
+    public void add(DecorationCursor cursor) {
+        if(!cursor.isDone()) {
+            cursors.add(cursor);
+            markDirty();
+        }
+    }
+
+    /*
+     * Function to move the cursors forward until the deadline, every cursor steps once every few ticks.
+     * A cursor whose next cell is near a chunk that is not loaded waits there. Returns true if steps of this tick are left
+     */
+    public boolean work(ServerWorld world, long deadline) {
+        if(world.getTime() != lastTick) {
+            lastTick = world.getTime();
+            stepsLeft = lastTick % STEP_INTERVAL == 0 ? cursors.size() : 0;
+        }
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        while(stepsLeft > 0 && !cursors.isEmpty() && System.nanoTime() < deadline) {
+            stepsLeft--;
+            if(next >= cursors.size()) {
+                next = 0;
+            }
+            DecorationCursor cursor = cursors.get(next);
+            cursor.getPos(pos);
+            //the step also looks at the neighbors of the cell
+            if(!LoadedChunks.areLoaded(world, new BlockBox(pos).expand(1))) {
+                next++;
+                continue;
+            }
+            cursor.step(world, pos);
+            markDirty();
+            if(cursor.isDone()) {
+                //swap with the last one, the order of the cursors does not matter
+                cursors.set(next, cursors.get(cursors.size() - 1));
+                cursors.remove(cursors.size() - 1);
+            }
+            else {
+                next++;
+            }
+        }
+        return stepsLeft > 0 && !cursors.isEmpty();
+    }
+}
@@ -0,0 +1,231 @@
+package net.pyrix25633.wild_update.world;
+
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+import net.pyrix25633.wild_update.WildUpdate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/*
+ * Grows mangrove trees in two steps: the tree is planned on a worker thread from a snapshot of its footprint,
+ * then the server thread checks the plan against the live world and commits it
+ */
+public class MangroveGrowth {
+    private static final Map<RegistryKey<World>, MangroveGrowth> WORLDS = new HashMap<>();
+
+    private final ServerWorld world;
+    private final List<Plan> inFlight = new ArrayList<>();
+    private final ConcurrentLinkedQueue<Plan> completed = new ConcurrentLinkedQueue<>();
+
+    private MangroveGrowth(ServerWorld world) {
+        this.world = world;
+    }
+
+    public static MangroveGrowth get(ServerWorld world) {
+        return WORLDS.computeIfAbsent(world.getRegistryKey(), key -> new MangroveGrowth(world));
+    }
+
+    public static void clear() {
+        WORLDS.clear();
+    }
+
+    /*
+     * Function to queue the growth of the propagule at pos, it starts when the tick budget allows it
+     */
+    public static void enqueue(ServerWorld world, BlockPos pos) {
+        MangroveGrowthQueue.get(world).enqueue(pos.asLong());
+    }
+
+    /*
+     * Function to start growing the tree of the propagule at pos
+     */
+    public void start(BlockPos pos, Random random) {
+        if(!LoadedChunks.areLoaded(world, new BlockBox(pos.getX() - 1, pos.getY(), pos.getZ() - 1, pos.getX() + 1, pos.getY(), pos.getZ() + 1))) {
+            //looking for a square reads the propagules around, they can be in a chunk that is not loaded
+            MangroveGrowthQueue.get(world).defer(pos.asLong(), world.getTime());
+            return;
+        }
+        BlockPos anchor = GiantMangroveTree.findAnchor(world, pos);
+        if(anchor != null && !ObstructedGrowthCache.get(world).containsGiant(anchor)) {
+            startGiant(pos, anchor, random);
+            return;
+        }
+        BlockStateBuffer column = new BlockStateBuffer(pos.getX(), pos.getY() + 1, pos.getZ(),
+                pos.getX(), pos.getY() + MangroveTreePlanner.OBSTRUCTION_HEIGHT, pos.getZ());
+        column.read(world);
+        if(MangroveTreePlanner.waterDepth(column, pos) < 0) {
+            //too much water or something solid above, nothing to try again until that column changes
+            ObstructedGrowthCache.get(world).add(pos);
+            MangroveGrowthQueue.get(world).finish(pos.asLong());
+            return;
+        }
+        BlockStateBuffer buffer = MangroveTreePlanner.createBuffer(pos);
+        BlockBox footprint = buffer.getBox();
+        if(!canStart(pos, footprint)) {
+            return;
+        }
+        buffer.read(world);
+        submit(new Plan(pos.toImmutable(), footprint, buffer, null, random.nextLong()));
+    }
+
+    /*
+     * Function to start growing a giant tree from the square of propagules at anchor,
+     * only the water columns above the four propagules are read before planning
+     */
+    private void startGiant(BlockPos pos, BlockPos anchor, Random random) {
+        BlockBox footprint = GiantMangroveTree.getFootprint(anchor);
+        if(!canStart(pos, footprint)) {
+            return;
+        }
+        BlockStateBuffer columns = new BlockStateBuffer(anchor.getX(), anchor.getY() + 1, anchor.getZ(),
+                anchor.getX() + 1, anchor.getY() + MangroveTreePlanner.OBSTRUCTION_HEIGHT, anchor.getZ() + 1);
+        columns.read(world);
+        int waterDepth = 0, i;
+        for(i = 0; i < 4 && waterDepth >= 0; i++) {
+            int depth = MangroveTreePlanner.waterDepth(columns, anchor.add(i & 1, 0, i >> 1));
+            waterDepth = depth < 0 ? -1 : Math.max(waterDepth, depth);
+        }
+        if(waterDepth < 0) {
+            //the square cannot grow a giant tree, the propagule grows a small one instead
+            ObstructedGrowthCache.get(world).addGiant(anchor);
+            MangroveGrowthQueue.get(world).retry(pos.asLong());
+            return;
+        }
+        GiantMangroveTree tree = new GiantMangroveTree(anchor.toImmutable(), waterDepth);
+        submit(new Plan(pos.toImmutable(), footprint, null, tree, random.nextLong()));
+    }
+
+    /*
+     * Function to know if a growth over the footprint can start now, otherwise it is put back in the queue
+     */
+    private boolean canStart(BlockPos pos, BlockBox footprint) {
+        for(Plan plan : inFlight) {
+            if(plan.footprint.intersects(footprint)) {
+                //another tree is being planned over the same blocks, this one waits for it to be committed
+                MangroveGrowthQueue.get(world).retry(pos.asLong());
+                return false;
+            }
+        }
+        if(!LoadedChunks.areLoaded(world, footprint)) {
+            //the footprint reaches chunks that are not fully loaded, reading them would load them on this thread
+            MangroveGrowthQueue.get(world).defer(pos.asLong(), world.getTime());
+            return false;
+        }
+        return true;
+    }
+
+    private void submit(Plan plan) {
+        inFlight.add(plan);
+        CompletableFuture.runAsync(plan::run, Util.getMainWorkerExecutor()).whenComplete((result, throwable) -> {
+            if(throwable != null) {
+                WildUpdate.LOGGER.error("Could not plan the mangrove tree of the propagule at " + plan.pos, throwable);
+                plan.failed = true;
+            }
+            completed.add(plan);
+        });
+    }
+
+    /*
+     * Function to run the growth of this world until the deadline: finished plans are committed first,
+     * then queued propagules are started with what is left. Returns true if there is still work waiting
+     */
+    public boolean work(long deadline) {
+        MangroveGrowthQueue queue = MangroveGrowthQueue.get(world);
+        Plan plan;
+        int committed = 0;
+        while((committed == 0 || System.nanoTime() < deadline) && (plan = completed.poll()) != null) {
+            inFlight.remove(plan);
+            committed++;
+            if(plan.failed) {
+                queue.finish(plan.pos.asLong());
+                continue;
+            }
+            if(!plan.grown) {
+                //the column was obstructed in the snapshot, start() checks it again against the live world
+                queue.retry(plan.pos.asLong());
+                continue;
+            }
+            if(!LoadedChunks.areLoaded(world, plan.footprint)) {
+                queue.defer(plan.pos.asLong(), world.getTime());
+            }
+            else if(plan.giant != null) {
+                commitGiant(plan, queue);
+            }
+            else if(plan.buffer.matches(world)) {
+                BlockBatchWriter writer = new BlockBatchWriter(world);
+                plan.buffer.writeChanges(writer);
+                writer.apply();
+                MangroveDecorations.get(world).add(plan.decorations);
+                queue.finish(plan.pos.asLong());
+            }
+            else if(MangroveGrowthQueue.isGrowingPropagule(world.getBlockState(plan.pos))) {
+                //the footprint changed while planning, plan again from the new blocks
+                queue.retry(plan.pos.asLong());
+            }
+            else {
+                queue.finish(plan.pos.asLong());
+            }
+        }
+        queue.drain(world, deadline);
+        return !completed.isEmpty() || queue.hasWork();
+    }
+
+    /*
+     * Function to commit a giant tree, its cells are checked one by one while they are written
+     */
+    private void commitGiant(Plan plan, MangroveGrowthQueue queue) {
+        if(!plan.giant.hasPropagules(world)) {
+            //the square is broken, the propagule grows a small tree if it is still there
+            queue.retry(plan.pos.asLong());
+        }
+        else if(plan.giant.commit(world)) {
+            MangroveDecorations.get(world).add(plan.decorations);
+            queue.finish(plan.pos.asLong());
+        }
+        else {
+            ObstructedGrowthCache.get(world).addGiant(plan.giant.getAnchor());
+            queue.retry(plan.pos.asLong());
+        }
+    }
+
+    private static class Plan {
+        private final BlockPos pos;
+        private final BlockBox footprint;
+        //a small tree is planned on a snapshot, a giant one is planned sparse without reading the world
+        private final BlockStateBuffer buffer;
+        private final GiantMangroveTree giant;
+        private final long seed;
+        //vines and propagules, placed over the next minutes once the tree is committed
+        private volatile DecorationCursor decorations;
+        private volatile boolean grown;
+        private volatile boolean failed;
+
+        private Plan(BlockPos pos, BlockBox footprint, BlockStateBuffer buffer, GiantMangroveTree giant, long seed) {
+            this.pos = pos;
+            this.footprint = footprint;
+            this.buffer = buffer;
+            this.giant = giant;
+            this.seed = seed;
+        }
+
+        private void run() {
+            if(giant != null) {
+                decorations = giant.plan(new Random(seed));
+            }
+            else {
+                decorations = MangroveTreePlanner.plan(buffer, pos, new Random(seed));
+            }
+            grown = decorations != null;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package net.pyrix25633.wild_update.world;
+
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.block.BlockState;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtLongArray;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.PersistentState;
+import net.pyrix25633.wild_update.block.ModBlocks;
+import net.pyrix25633.wild_update.block.custom.MangrovePropagule;
+
+/*
+ * Per-world queue of propagules waiting to grow, drained a little every tick within a time budget.
+ * Every growth that is not committed yet is saved, so it survives a restart
+ */
+public class MangroveGrowthQueue extends PersistentState {
+    private static final String ID = "wild_update_mangrove_growth";
+    //ticks to wait before looking again at a growth near chunks that are not loaded
+    private static final int DEFER_TICKS = 100;
+
+    private final LongArrayFIFOQueue toStart = new LongArrayFIFOQueue();
+    private final LongOpenHashSet pending = new LongOpenHashSet();
+    private final LongArrayFIFOQueue deferred = new LongArrayFIFOQueue();
+    private final LongArrayFIFOQueue deferredUntil = new LongArrayFIFOQueue();
+
+    public static MangroveGrowthQueue get(ServerWorld world) {
+        return world.getPersistentStateManager().getOrCreate(MangroveGrowthQueue::fromNbt, MangroveGrowthQueue::new, ID);
+    }
+
+    private static MangroveGrowthQueue fromNbt(NbtCompound nbt) {
+        MangroveGrowthQueue queue = new MangroveGrowthQueue();
+        for(long packed : nbt.getLongArray("Pending")) {
+            queue.enqueue(packed);
+        }
+        return queue;
+    }
+
+    @Override
+    public NbtCompound writeNbt(NbtCompound nbt) {
+        nbt.put("Pending", new NbtLongArray(pending.toLongArray()));
+        return nbt;
+    }
+
+    /*
+     * Function to queue the growth of a propagule, a propagule already waiting is not queued twice
+     */
+    public void enqueue(long packed) {
+        if(pending.add(packed)) {
+            toStart.enqueue(packed);
+            markDirty();
+        }
+    }
+
+    /*
+     * Function to put back a growth that could not start or has to be planned again
+     */
+    public void retry(long packed) {
+        if(pending.contains(packed)) {
+            toStart.enqueue(packed);
+        }
+    }
+
+    /*
+     * Function to put a growth aside until its chunks had time to load, it is never loaded from here
+     */
+    public void defer(long packed, long time) {
+        if(pending.contains(packed)) {
+            deferred.enqueue(packed);
+            deferredUntil.enqueue(time + DEFER_TICKS);
+        }
+    }
+
+    /*
+     * Function to forget a growth once it has been committed or dropped
+     */
+    public void finish(long packed) {
+        if(pending.remove(packed)) {
+            markDirty();
+        }
+    }
+
+    /*
+     * Function to start queued growths until the deadline, every queued entry is looked at once at most.
+     * One entry is always looked at, so growth goes on even with a work budget of 0
+     */
+    public void drain(ServerWorld world, long deadline) {
+        MangroveGrowth growth = MangroveGrowth.get(world);
+        long time = world.getTime();
+        while(!deferredUntil.isEmpty() && deferredUntil.firstLong() <= time) {
+            deferredUntil.dequeueLong();
+            toStart.enqueue(deferred.dequeueLong());
+        }
+        int count = toStart.size(), started = 0;
+        while(count-- > 0 && !toStart.isEmpty() && (started == 0 || System.nanoTime() < deadline)) {
+            started++;
+            long packed = toStart.dequeueLong();
+            BlockPos pos = BlockPos.fromLong(packed);
+            if(!LoadedChunks.isLoaded(world, pos)) {
+                defer(packed, time);
+                continue;
+            }
+            if(!isGrowingPropagule(world.getBlockState(pos))) {
+                finish(packed);
+                continue;
+            }
+            growth.start(pos, world.random);
+        }
+    }
+
+    /*
+     * Function to know if there are growths ready to start, the deferred ones are not counted
+     */
+    public boolean hasWork() {
+        return !toStart.isEmpty();
+    }
+
+    public static boolean isGrowingPropagule(BlockState state) {
+        return state.isOf(ModBlocks.MANGROVE_PROPAGULE) && !state.get(MangrovePropagule.HANGING);
+    }
+}
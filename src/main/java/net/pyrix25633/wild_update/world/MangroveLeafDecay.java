@@ -0,0 +1,226 @@
+package net.pyrix25633.wild_update.world;
+
+import it.unimi.dsi.fastutil.ints.IntArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.LeavesBlock;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+import net.pyrix25633.wild_update.block.ModBlocks;
+import net.pyrix25633.wild_update.block.custom.MangroveLeavesBlock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Recomputes the mangrove leaves around a removed log or leaf with one flood fill, then decays
+ * the leaves left without a log within the WorkGovernor budget instead of through a chain of scheduled ticks.
+ * Fills that do not fit in the queue, or are still waiting when the server stops, fall back to those scheduled ticks
+ */
+public class MangroveLeafDecay {
+    private static final Map<RegistryKey<World>, MangroveLeafDecay> WORLDS = new HashMap<>();
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final int MAX_PENDING = 4096;
+
+    private final ServerWorld world;
+    private final LongArrayFIFOQueue removed = new LongArrayFIFOQueue();
+    private final LongOpenHashSet removedSet = new LongOpenHashSet();
+    private final LongArrayFIFOQueue detached = new LongArrayFIFOQueue();
+
+    private MangroveLeafDecay(ServerWorld world) {
+        this.world = world;
+    }
+
+    public static MangroveLeafDecay get(ServerWorld world) {
+        return WORLDS.computeIfAbsent(world.getRegistryKey(), key -> new MangroveLeafDecay(world));
+    }
+
+    public static void clear() {
+        WORLDS.clear();
+    }
+
+    /*
+     * Function to know if a block change can leave mangrove leaves without their log,
+     * other trees and digging away from mangroves only cost the cheap checks before the neighbors are read
+     */
+    public static boolean removesSupport(ServerWorld world, BlockPos pos, BlockState oldState, BlockState newState) {
+        if(oldState.isOf(newState.getBlock())) {
+            return false; //a distance update or a property change, the decay already follows it
+        }
+        if(MangroveLeavesBlock.getDistance(oldState) >= MangroveLeavesBlock.MAX_DISTANCE - 1) {
+            return false; //not a log, or leaves nothing could depend on
+        }
+        if(MangroveLeavesBlock.getDistance(newState) <= MangroveLeavesBlock.getDistance(oldState)) {
+            return false;
+        }
+        BlockPos.Mutable neighbor = new BlockPos.Mutable();
+        for(Direction direction : DIRECTIONS) {
+            neighbor.set(pos, direction);
+            if(LoadedChunks.isLoaded(world, neighbor) && world.getBlockState(neighbor).isOf(ModBlocks.MANGROVE_LEAVES)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void onSupportRemoved(BlockPos pos) {
+        if(removedSet.size() >= MAX_PENDING) {
+            scheduleNeighbors(pos.asLong());
+        }
+        else if(removedSet.add(pos.asLong())) {
+            removed.enqueue(pos.asLong());
+        }
+    }
+
+    /*
+     * Function to let the leaves around a removed block update themselves with scheduled ticks, like vanilla leaves do.
+     * The ticks are saved with the chunks
+     */
+    private void scheduleNeighbors(long packed) {
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for(Direction direction : DIRECTIONS) {
+            pos.set(BlockPos.offset(packed, direction));
+            if(LoadedChunks.isLoaded(world, pos) && world.getBlockState(pos).isOf(ModBlocks.MANGROVE_LEAVES)) {
+                world.createAndScheduleBlockTick(pos.toImmutable(), ModBlocks.MANGROVE_LEAVES, 1);
+            }
+        }
+    }
+
+    /*
+     * Function to hand the waiting fills to scheduled ticks, called before the worlds are saved for the last time.
+     * Detached leaves already have the maximum distance and decay with their random ticks
+     */
+    public void unloadAll() {
+        while(!removed.isEmpty()) {
+            scheduleNeighbors(removed.dequeueLong());
+        }
+        removedSet.clear();
+    }
+
+    /*
+     * Function to run flood fills, then decay detached leaves, until the deadline.
+     * Returns true if there is still work waiting
+     */
+    public boolean work(long deadline) {
+        while(!removed.isEmpty() && System.nanoTime() < deadline) {
+            long packed = removed.dequeueLong();
+            removedSet.remove(packed);
+            recompute(packed);
+        }
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        while(!detached.isEmpty() && System.nanoTime() < deadline) {
+            pos.set(detached.dequeueLong());
+            if(!LoadedChunks.isLoaded(world, pos)) {
+                continue; //the leaves keep their distance and decay with their random ticks
+            }
+            BlockState state = world.getBlockState(pos);
+            if(state.isOf(ModBlocks.MANGROVE_LEAVES) && !state.get(LeavesBlock.PERSISTENT) &&
+                    state.get(LeavesBlock.DISTANCE) == MangroveLeavesBlock.MAX_DISTANCE) {
+                Block.dropStacks(state, world, pos);
+                world.removeBlock(pos, false);
+            }
+        }
+        return !removed.isEmpty() || !detached.isEmpty();
+    }
+
+    /*
+     * Function to recompute the leaves that could depend on the removed block: they are the ones
+     * reachable through leaves in less than the maximum distance, so the fill never leaves that range
+     */
+    private void recompute(long origin) {
+        Long2IntOpenHashMap region = new Long2IntOpenHashMap();
+        region.defaultReturnValue(-1);
+        LongArrayFIFOQueue queue = new LongArrayFIFOQueue();
+        IntArrayFIFOQueue steps = new IntArrayFIFOQueue();
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        queue.enqueue(origin);
+        steps.enqueue(0);
+        while(!queue.isEmpty()) {
+            long packed = queue.dequeueLong();
+            int step = steps.dequeueInt();
+            if(step >= MangroveLeavesBlock.MAX_DISTANCE - 1) {
+                continue;
+            }
+            for(Direction direction : DIRECTIONS) {
+                long neighbor = BlockPos.offset(packed, direction);
+                if(neighbor == origin || region.containsKey(neighbor)) {
+                    continue;
+                }
+                pos.set(neighbor);
+                if(!LoadedChunks.isLoaded(world, pos)) {
+                    continue;
+                }
+                if(world.getBlockState(pos).isOf(ModBlocks.MANGROVE_LEAVES)) {
+                    region.put(neighbor, MangroveLeavesBlock.MAX_DISTANCE);
+                    queue.enqueue(neighbor);
+                    steps.enqueue(step + 1);
+                }
+            }
+        }
+        if(region.isEmpty()) {
+            return;
+        }
+        //bucket queue by distance: the fill is seeded by the logs and the leaves around the region
+        LongArrayList[] buckets = new LongArrayList[MangroveLeavesBlock.MAX_DISTANCE + 1];
+        int distance;
+        for(distance = 1; distance <= MangroveLeavesBlock.MAX_DISTANCE; distance++) {
+            buckets[distance] = new LongArrayList();
+        }
+        ObjectIterator<Long2IntMap.Entry> iterator = region.long2IntEntrySet().fastIterator();
+        while(iterator.hasNext()) {
+            long packed = iterator.next().getLongKey();
+            int best = MangroveLeavesBlock.MAX_DISTANCE;
+            for(Direction direction : DIRECTIONS) {
+                long neighbor = BlockPos.offset(packed, direction);
+                if(region.containsKey(neighbor)) {
+                    continue;
+                }
+                pos.set(neighbor);
+                if(LoadedChunks.isLoaded(world, pos)) {
+                    best = Math.min(best, MangroveLeavesBlock.getDistance(world.getBlockState(pos)) + 1);
+                }
+            }
+            if(best < MangroveLeavesBlock.MAX_DISTANCE) {
+                buckets[best].add(packed);
+            }
+        }
+        int i;
+        for(distance = 1; distance < MangroveLeavesBlock.MAX_DISTANCE; distance++) {
+            for(i = 0; i < buckets[distance].size(); i++) {
+                long packed = buckets[distance].getLong(i);
+                if(region.get(packed) <= distance) {
+                    continue;
+                }
+                region.put(packed, distance);
+                for(Direction direction : DIRECTIONS) {
+                    long neighbor = BlockPos.offset(packed, direction);
+                    if(region.get(neighbor) > distance + 1) {
+                        buckets[distance + 1].add(neighbor);
+                    }
+                }
+            }
+        }
+        iterator = region.long2IntEntrySet().fastIterator();
+        while(iterator.hasNext()) {
+            Long2IntMap.Entry entry = iterator.next();
+            pos.set(entry.getLongKey());
+            BlockState state = world.getBlockState(pos);
+            if(state.get(LeavesBlock.DISTANCE) != entry.getIntValue()) {
+                //only the clients are told, the neighbors already know
+                world.setBlockState(pos, state.with(LeavesBlock.DISTANCE, entry.getIntValue()), Block.NOTIFY_LISTENERS);
+            }
+            if(entry.getIntValue() == MangroveLeavesBlock.MAX_DISTANCE && !state.get(LeavesBlock.PERSISTENT)) {
+                detached.enqueue(entry.getLongKey());
+            }
+        }
+    }
+}
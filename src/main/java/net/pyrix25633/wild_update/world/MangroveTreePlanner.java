@@ -0,0 +1,206 @@
+package net.pyrix25633.wild_update.world;
+
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.LeavesBlock;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.pyrix25633.wild_update.block.BlockStateIndex;
+import net.pyrix25633.wild_update.block.ModBlocks;
+import net.pyrix25633.wild_update.block.custom.MangroveLeavesBlock;
+import net.pyrix25633.wild_update.block.custom.MangrovePropagule;
+
+import java.util.Random;
+
+/*
+ * Plans a mangrove tree entirely against a BlockStateBuffer: logs, roots and leaves are decided in memory
+ * and the world is only touched when the buffer is read and the diff written.
+ * Vines and propagules are left to a DecorationCursor that places them later against the live world
+ */
+public class MangroveTreePlanner {
+    //one more block around the tree volume, so vines can look at their neighbors
+    private static final int MARGIN = 1;
+    //deepest water a propagule can grow in, the trunk is lifted to start above it
+    public static final int MAX_WATER_DEPTH = 6;
+    //how far below the propagule the roots can reach the floor
+    public static final int MAX_ROOT_DEPTH = 6;
+    //how many blocks above the propagule decide if it is obstructed
+    public static final int OBSTRUCTION_HEIGHT = MAX_WATER_DEPTH + 1;
+    private static final int[] ROOT_DX = {1, -1, 0, 0}, ROOT_DZ = {0, 0, 1, -1};
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /*
+     * Function to create a buffer big enough for the tree growing from pos
+     */
+    public static BlockStateBuffer createBuffer(BlockPos pos) {
+        int radius = MangroveTreeTemplate.RADIUS + MARGIN;
+        return new BlockStateBuffer(pos.getX() - radius, pos.getY() - MAX_ROOT_DEPTH, pos.getZ() - radius,
+                pos.getX() + radius, pos.getY() + MangroveTreeTemplate.MAX_DY + MAX_WATER_DEPTH + MARGIN,
+                pos.getZ() + radius);
+    }
+
+    /*
+     * Function to plan the tree into the buffer, returns the cursor of its decorations or null if the site is obstructed
+     */
+    public static DecorationCursor plan(BlockStateBuffer buffer, BlockPos pos, Random random) {
+        int waterDepth = waterDepth(buffer, pos);
+        int treeType = random.nextInt(4), randHeight = random.nextInt(3);
+        if(waterDepth < 0) {
+            return null;
+        }
+        MangroveTreeTemplate template = MangroveTreeTemplate.get(treeType, randHeight, waterDepth != 0);
+        //in deep water the whole tree moves up, so the first log is above the surface
+        int lift = Math.max(0, waterDepth - randHeight);
+        int x = pos.getX(), y = pos.getY() + lift, z = pos.getZ();
+        int i, tempX, tempY, tempZ;
+        LongArrayFIFOQueue placedLogs = new LongArrayFIFOQueue();
+        //first time: tree log, roots and leaves
+        for(i = 0; i < template.logs.length; i++) {
+            tempX = x + MangroveTreeTemplate.unpackX(template.logs[i]);
+            tempY = y + MangroveTreeTemplate.unpackY(template.logs[i]);
+            tempZ = z + MangroveTreeTemplate.unpackZ(template.logs[i]);
+            if(BlockStateIndex.MANGROVE_REPLACEABLE.contains(buffer.getBlockState(tempX, tempY, tempZ))) {
+                buffer.setBlockState(tempX, tempY, tempZ, ModBlocks.MANGROVE_LOG.getDefaultState());
+                placedLogs.enqueue(BlockPos.asLong(tempX, tempY, tempZ));
+            }
+        }
+        if(waterDepth != 0) {
+            placeRoots(buffer, pos, y + template.minLogDy);
+        }
+        for(i = 0; i < template.solidLeaves.length; i++) {
+            tempX = x + MangroveTreeTemplate.unpackX(template.solidLeaves[i]);
+            tempY = y + MangroveTreeTemplate.unpackY(template.solidLeaves[i]);
+            tempZ = z + MangroveTreeTemplate.unpackZ(template.solidLeaves[i]);
+            if(BlockStateIndex.MANGROVE_REPLACEABLE.contains(buffer.getBlockState(tempX, tempY, tempZ))) {
+                buffer.setBlockState(tempX, tempY, tempZ, ModBlocks.MANGROVE_LEAVES.getDefaultState());
+            }
+        }
+        for(i = 0; i < template.leaves.length; i++) {
+            tempX = x + MangroveTreeTemplate.unpackX(template.leaves[i]);
+            tempY = y + MangroveTreeTemplate.unpackY(template.leaves[i]);
+            tempZ = z + MangroveTreeTemplate.unpackZ(template.leaves[i]);
+            if(BlockStateIndex.MANGROVE_REPLACEABLE.contains(buffer.getBlockState(tempX, tempY, tempZ)) &&
+                    random.nextInt(12) != 1) {
+                buffer.setBlockState(tempX, tempY, tempZ, ModBlocks.MANGROVE_LEAVES.getDefaultState());
+            }
+        }
+        resolveLeafDistances(buffer, placedLogs);
+        //second time, later: decorations such as propagule and vines
+        return createDecorations(template, x, y, z, random.nextLong());
+    }
+
+    /*
+     * Function to turn the template decoration cells into a cursor starting from the tree position
+     */
+    private static DecorationCursor createDecorations(MangroveTreeTemplate template, int x, int y, int z, long seed) {
+        long[] cells = new long[template.decorations.length];
+        byte[] kinds = new byte[template.decorations.length];
+        int i;
+        for(i = 0; i < cells.length; i++) {
+            int decoration = template.decorations[i];
+            cells[i] = BlockPos.asLong(x + MangroveTreeTemplate.unpackX(decoration),
+                    y + MangroveTreeTemplate.unpackY(decoration), z + MangroveTreeTemplate.unpackZ(decoration));
+            if(MangroveTreeTemplate.isPropaguleCandidate(decoration)) {
+                kinds[i] |= DecorationCursor.PROPAGULE;
+            }
+            if(MangroveTreeTemplate.isVineCandidate(decoration)) {
+                kinds[i] |= DecorationCursor.VINE;
+            }
+        }
+        return new DecorationCursor(cells, kinds, seed);
+    }
+
+    /*
+     * Function to write the leaves distance already resolved, with one breadth first search from the placed logs,
+     * so the committed leaves do not have to find it with neighbor updates and scheduled ticks
+     */
+    private static void resolveLeafDistances(BlockStateBuffer buffer, LongArrayFIFOQueue queue) {
+        while(!queue.isEmpty()) {
+            long packed = queue.dequeueLong();
+            int x = BlockPos.unpackLongX(packed), y = BlockPos.unpackLongY(packed), z = BlockPos.unpackLongZ(packed);
+            int distance = MangroveLeavesBlock.getDistance(buffer.getBlockState(x, y, z)) + 1;
+            for(Direction direction : DIRECTIONS) {
+                int tempX = x + direction.getOffsetX(), tempY = y + direction.getOffsetY(), tempZ = z + direction.getOffsetZ();
+                BlockState state = buffer.getBlockState(tempX, tempY, tempZ);
+                if(state.isOf(ModBlocks.MANGROVE_LEAVES) && state.get(LeavesBlock.DISTANCE) > distance) {
+                    buffer.setBlockState(tempX, tempY, tempZ, state.with(LeavesBlock.DISTANCE, distance));
+                    if(distance < MangroveLeavesBlock.MAX_DISTANCE - 1) {
+                        queue.enqueue(BlockPos.asLong(tempX, tempY, tempZ));
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Function to place the roots: a column from the propagule up to the first log, four short arms just under it
+     * and four outer arms going down to the ocean floor read from the heightmap
+     */
+    private static void placeRoots(BlockStateBuffer buffer, BlockPos pos, int minLogY) {
+        int x = pos.getX(), z = pos.getZ();
+        int i, tempY;
+        for(tempY = pos.getY(); tempY < minLogY; tempY++) {
+            placeRoot(buffer, x, tempY, z);
+        }
+        for(i = 0; i < ROOT_DX.length; i++) {
+            placeRoot(buffer, x + ROOT_DX[i], minLogY - 1, z + ROOT_DZ[i]);
+            int armX = x + 2 * ROOT_DX[i], armZ = z + 2 * ROOT_DZ[i];
+            int floor = buffer.getFloor(armX, armZ);
+            for(tempY = minLogY - 2; tempY >= floor; tempY--) {
+                if(!placeRoot(buffer, armX, tempY, armZ)) {
+                    break; //something solid the heightmap did not see, the arm rests on it
+                }
+            }
+        }
+    }
+
+    /*
+     * Function to place a single root, returns false if the block there cannot be replaced
+     */
+    private static boolean placeRoot(BlockStateBuffer buffer, int x, int y, int z) {
+        BlockState state = buffer.getBlockState(x, y, z);
+        if(!BlockStateIndex.MANGROVE_REPLACEABLE.contains(state)) {
+            return false;
+        }
+        buffer.setBlockState(x, y, z, ModBlocks.MANGROVE_ROOTS.getDefaultState()
+                .with(MangrovePropagule.WATERLOGGED, isWaterlogged(state)));
+        return true;
+    }
+
+    /*
+     * Function to know if a replaced block leaves water in the root
+     */
+    private static boolean isWaterlogged(BlockState state) {
+        if(state.isOf(Blocks.WATER)) {
+            return true;
+        }
+        return state.isOf(ModBlocks.MANGROVE_PROPAGULE) && state.get(MangrovePropagule.WATERLOGGED);
+    }
+
+    /*
+     * Function to know how deep the water above the propagule is, -1 if it is too deep
+     * or there are some non-replaceable blocks above
+     */
+    public static int waterDepth(BlockStateBuffer buffer, BlockPos pos) {
+        int i, depth = 0;
+        boolean surface = false;
+        for(i = 1; i <= OBSTRUCTION_HEIGHT; i++) {
+            BlockState state = buffer.getBlockState(pos.getX(), pos.getY() + i, pos.getZ());
+            if(state.isOf(Blocks.WATER) && !surface) {
+                depth++;
+            }
+            else if(!BlockStateIndex.MANGROVE_REPLACEABLE.contains(state)) {
+                return -1; //non-replaceable blocks above
+            }
+            else {
+                surface = true;
+            }
+        }
+        if(depth > MAX_WATER_DEPTH) {
+            return -1; //too much water
+        }
+
+        return depth;
+    }
+}
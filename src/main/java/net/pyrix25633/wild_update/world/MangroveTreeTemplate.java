@@ -0,0 +1,139 @@
+package net.pyrix25633.wild_update.world;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+/*
+ * Sparse shape of a mangrove tree: every array holds packed offsets from the propagule position,
+ * so generation only walks the cells the tree can actually occupy
+ */
+public class MangroveTreeTemplate {
+    public static final int TREE_TYPES = 4, HEIGHTS = 3;
+    public static final int RADIUS = 4, MIN_DY = -2, MAX_DY = 10;
+    public static final int PROPAGULE_FLAG = 1 << 24, VINE_FLAG = 1 << 25;
+
+    /*
+     * Regions relative to the top of the log: {minDy, maxDy, minDx, maxDx, minDz, maxDz}, inclusive
+     */
+    private static final int[][] FOLIAGE = {
+            {-3, 1, -1, 2, -2, 1}, {-1, 1, -2, 1, -1, 2}, {-2, 1, -1, 3, -3, 1}, {-3, 1, -3, 1, -1, 3}};
+    //leaves inside these regions never get a random hole, the second type has none
+    private static final int[][] FOLIAGE_CORE = {
+            {0, 1, 0, 1, -1, 0}, null, {1, 1, 0, 2, -2, 0}, {0, 2, -2, 0, 0, 2}};
+    private static final int[][] PROPAGULES = {
+            {-4, 0, -1, 2, -2, 1}, {-2, 0, -2, 1, -1, 2}, {-3, 0, -1, 3, -3, 1}, {-4, 1, -3, 1, -1, 3}};
+    private static final int[][] VINES = {
+            {-4, 0, -2, 3, -3, 2}, {-2, 0, -3, 2, -2, 3}, {-3, 0, -2, 4, -4, 2}, {-4, 1, -4, 2, -2, 4}};
+
+    private static final MangroveTreeTemplate[] TEMPLATES = new MangroveTreeTemplate[TREE_TYPES * HEIGHTS * 2];
+
+    public final int minLogDy;
+    public final int[] logs;
+    public final int[] solidLeaves;
+    public final int[] leaves;
+    public final int[] decorations;
+
+    private MangroveTreeTemplate(int minLogDy, int[] logs, int[] solidLeaves, int[] leaves, int[] decorations) {
+        this.minLogDy = minLogDy;
+        this.logs = logs;
+        this.solidLeaves = solidLeaves;
+        this.leaves = leaves;
+        this.decorations = decorations;
+    }
+
+    /*
+     * Function to get the precompiled template, withRoots is used when there is water above the propagule:
+     * the trunk then starts at minLogDy and the roots under it are left to the planner
+     */
+    public static MangroveTreeTemplate get(int treeType, int randHeight, boolean withRoots) {
+        return TEMPLATES[(treeType * HEIGHTS + randHeight) * 2 + (withRoots ? 1 : 0)];
+    }
+
+    public static int pack(int dx, int dy, int dz) {
+        return ((dx + 128) << 16) | ((dy + 128) << 8) | (dz + 128);
+    }
+
+    public static int unpackX(int packed) {
+        return ((packed >> 16) & 0xFF) - 128;
+    }
+
+    public static int unpackY(int packed) {
+        return ((packed >> 8) & 0xFF) - 128;
+    }
+
+    public static int unpackZ(int packed) {
+        return (packed & 0xFF) - 128;
+    }
+
+    public static boolean isPropaguleCandidate(int packed) {
+        return (packed & PROPAGULE_FLAG) != 0;
+    }
+
+    public static boolean isVineCandidate(int packed) {
+        return (packed & VINE_FLAG) != 0;
+    }
+
+    /*
+     * Function to know if a (dx, dy, dz) cell is inside a region relative to the top of the log
+     */
+    private static boolean inRegion(int[] region, int dx, int dy, int dz, int maxLogDy) {
+        return region != null && dy >= maxLogDy + region[0] && dy <= maxLogDy + region[1] &&
+                dx >= region[2] && dx <= region[3] && dz >= region[4] && dz <= region[5];
+    }
+
+    /*
+     * Function to compile a template, walking the whole volume once at startup
+     */
+    private static MangroveTreeTemplate compile(int treeType, int randHeight, boolean withRoots) {
+        int maxLogDy = 6 + randHeight, minLogDy = 1 + randHeight;
+        IntArrayList logs = new IntArrayList(), solidLeaves = new IntArrayList(),
+                leaves = new IntArrayList(), decorations = new IntArrayList();
+        int dx, dy, dz;
+        for(dx = -RADIUS; dx <= RADIUS; dx++) {
+            for(dz = -RADIUS; dz <= RADIUS; dz++) {
+                for(dy = MIN_DY; dy <= MAX_DY; dy++) {
+                    int packed = pack(dx, dy, dz);
+                    if(dx == 0 && dz == 0 && dy <= maxLogDy) {
+                        if(!withRoots || dy >= minLogDy) {
+                            logs.add(packed);
+                        }
+                        continue;
+                    }
+                    if(withRoots && dy < minLogDy) {
+                        continue; //roots, they depend on the floor and are placed by the planner
+                    }
+                    if(inRegion(FOLIAGE[treeType], dx, dy, dz, maxLogDy)) {
+                        if(inRegion(FOLIAGE_CORE[treeType], dx, dy, dz, maxLogDy)) {
+                            solidLeaves.add(packed);
+                        }
+                        else {
+                            leaves.add(packed);
+                        }
+                        continue;
+                    }
+                    int flags = 0;
+                    if(inRegion(PROPAGULES[treeType], dx, dy, dz, maxLogDy)) {
+                        flags |= PROPAGULE_FLAG;
+                    }
+                    if(inRegion(VINES[treeType], dx, dy, dz, maxLogDy)) {
+                        flags |= VINE_FLAG;
+                    }
+                    if(flags != 0) {
+                        decorations.add(packed | flags);
+                    }
+                }
+            }
+        }
+        return new MangroveTreeTemplate(minLogDy, logs.toIntArray(), solidLeaves.toIntArray(),
+                leaves.toIntArray(), decorations.toIntArray());
+    }
+
+    static {
+        int treeType, randHeight;
+        for(treeType = 0; treeType < TREE_TYPES; treeType++) {
+            for(randHeight = 0; randHeight < HEIGHTS; randHeight++) {
+                TEMPLATES[(treeType * HEIGHTS + randHeight) * 2] = compile(treeType, randHeight, false);
+                TEMPLATES[(treeType * HEIGHTS + randHeight) * 2 + 1] = compile(treeType, randHeight, true);
+            }
+        }
+    }
+}
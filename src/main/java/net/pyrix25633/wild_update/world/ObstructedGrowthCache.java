@@ -0,0 +1,110 @@
+package net.pyrix25633.wild_update.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Remembers, chunk by chunk, the propagules that cannot grow because of what is above them.
+ * An entry stays until a block changes in the column above it, so repeated attempts are rejected at once.
+ * Squares that cannot grow a giant tree are kept apart by their anchor, which can still grow a small one.
+ * They stay until a block changes in one of the four trunk columns, up to the top of the trunk
+ */
+public class ObstructedGrowthCache {
+    private static final Map<RegistryKey<World>, ObstructedGrowthCache> WORLDS = new HashMap<>();
+    public static final int COLUMN_HEIGHT = MangroveTreePlanner.OBSTRUCTION_HEIGHT;
+
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> byChunk = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> giantsByChunk = new Long2ObjectOpenHashMap<>();
+
+    public static ObstructedGrowthCache get(ServerWorld world) {
+        return WORLDS.computeIfAbsent(world.getRegistryKey(), key -> new ObstructedGrowthCache());
+    }
+
+    public static void clear() {
+        WORLDS.clear();
+    }
+
+    private static long chunkKey(int x, int z) {
+        return ChunkPos.toLong(ChunkSectionPos.getSectionCoord(x), ChunkSectionPos.getSectionCoord(z));
+    }
+
+    private static boolean contains(Long2ObjectOpenHashMap<LongOpenHashSet> map, BlockPos pos) {
+        LongOpenHashSet positions = map.get(chunkKey(pos.getX(), pos.getZ()));
+        return positions != null && positions.contains(pos.asLong());
+    }
+
+    private static void add(Long2ObjectOpenHashMap<LongOpenHashSet> map, BlockPos pos) {
+        long key = chunkKey(pos.getX(), pos.getZ());
+        LongOpenHashSet positions = map.get(key);
+        if(positions == null) {
+            positions = new LongOpenHashSet();
+            map.put(key, positions);
+        }
+        positions.add(pos.asLong());
+    }
+
+    public boolean contains(BlockPos pos) {
+        return contains(byChunk, pos);
+    }
+
+    public void add(BlockPos pos) {
+        add(byChunk, pos);
+    }
+
+    public boolean containsGiant(BlockPos anchor) {
+        return contains(giantsByChunk, anchor);
+    }
+
+    public void addGiant(BlockPos anchor) {
+        add(giantsByChunk, anchor);
+    }
+
+    /*
+     * Function to forget the propagules below a changed block
+     */
+    public void onBlockChanged(int x, int y, int z) {
+        onBlockChanged(byChunk, x, y, z, COLUMN_HEIGHT);
+        if(giantsByChunk.isEmpty()) {
+            return;
+        }
+        //the changed block is in the trunk of the anchors at its west, north and north-west too
+        int dx, dz;
+        for(dx = 0; dx <= 1; dx++) {
+            for(dz = 0; dz <= 1; dz++) {
+                onBlockChanged(giantsByChunk, x - dx, y, z - dz, GiantMangroveTree.MAX_TRUNK_TOP);
+            }
+        }
+    }
+
+    /*
+     * Function to forget the entries of the column of x and z up to height blocks below y
+     */
+    private static void onBlockChanged(Long2ObjectOpenHashMap<LongOpenHashSet> map, int x, int y, int z, int height) {
+        long key = chunkKey(x, z);
+        LongOpenHashSet positions = map.get(key);
+        if(positions == null) {
+            return;
+        }
+        int i;
+        for(i = 1; i <= height; i++) {
+            positions.remove(BlockPos.asLong(x, y - i, z));
+        }
+        if(positions.isEmpty()) {
+            map.remove(key);
+        }
+    }
+
+    public void onChunkUnload(ChunkPos pos) {
+        byChunk.remove(pos.toLong());
+        giantsByChunk.remove(pos.toLong());
+    }
+}
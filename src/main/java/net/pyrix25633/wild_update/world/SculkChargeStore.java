@@ -0,0 +1,262 @@
+package net.pyrix25633.wild_update.world;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.WorldSavePath;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+import net.minecraft.world.dimension.DimensionType;
+import net.pyrix25633.wild_update.WildUpdate;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Sculk charge of the chunks, kept off the heap in memory-mapped region files of 32x32 chunks.
+ * Every chunk has a fixed record: the charge left in each of its 256 columns and the cursors that were walking
+ * in it when it was unloaded. The OS pages a record in the first time it is read, and only the records
+ * written since the last save are forced to disk
+ */
+public class SculkChargeStore {
+    private static final Map<RegistryKey<World>, SculkChargeStore> WORLDS = new HashMap<>();
+    private static final int REGION_SHIFT = 5, REGION_MASK = (1 << REGION_SHIFT) - 1;
+    private static final int REGION_CHUNKS = 1 << (REGION_SHIFT * 2);
+    //record layout: magic, cursor count, 256 column charges as unsigned shorts, then the cursors
+    private static final int RECORD_SIZE = 1024;
+    private static final int MAGIC = 0x53434b31;
+    private static final int MAGIC_OFFSET = 0, CURSOR_COUNT_OFFSET = 4, CHARGE_OFFSET = 16;
+    private static final int CURSOR_OFFSET = CHARGE_OFFSET + 256 * 2, CURSOR_SIZE = 16;
+    public static final int MAX_CURSORS = (RECORD_SIZE - CURSOR_OFFSET) / CURSOR_SIZE;
+    public static final int MAX_COLUMN_CHARGE = 0xFFFF;
+
+    private final Path directory;
+    private final Long2ObjectOpenHashMap<Region> regions = new Long2ObjectOpenHashMap<>();
+    //regions with no file yet, so reads do not touch the disk again
+    private final LongOpenHashSet missing = new LongOpenHashSet();
+
+    private static class Region {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final long[] dirty = new long[REGION_CHUNKS / 64];
+        private boolean anyDirty;
+
+        private Region(FileChannel channel, MappedByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+
+    /*
+     * Receives the cursors of a chunk when they are taken out of the store
+     */
+    @FunctionalInterface
+    public interface CursorConsumer {
+        void accept(long pos, int charge, int decay);
+    }
+
+    private SculkChargeStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public static SculkChargeStore get(ServerWorld world) {
+        return WORLDS.computeIfAbsent(world.getRegistryKey(), key -> new SculkChargeStore(
+                DimensionType.getSaveDirectory(key, world.getServer().getSavePath(WorldSavePath.ROOT))
+                        .resolve("data").resolve("wild_update_sculk")));
+    }
+
+    /*
+     * Function to flush and close every store, called when the server stops
+     */
+    public static void closeAll() {
+        for(SculkChargeStore store : WORLDS.values()) {
+            store.close();
+        }
+        WORLDS.clear();
+    }
+
+    private Region getRegion(int chunkX, int chunkZ, boolean create) {
+        int regionX = chunkX >> REGION_SHIFT, regionZ = chunkZ >> REGION_SHIFT;
+        long key = ChunkPos.toLong(regionX, regionZ);
+        Region region = regions.get(key);
+        if(region != null || (!create && missing.contains(key))) {
+            return region;
+        }
+        Path path = directory.resolve("r." + regionX + "." + regionZ + ".bin");
+        if(!create && !Files.exists(path)) {
+            missing.add(key);
+            return null;
+        }
+        try {
+            Files.createDirectories(directory);
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            //mapping past the end grows the file, untouched records stay holes on sparse file systems
+            region = new Region(channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, (long)REGION_CHUNKS * RECORD_SIZE));
+        }
+        catch(IOException e) {
+            WildUpdate.LOGGER.error("Could not open sculk charge region " + path, e);
+            missing.add(key);
+            return null;
+        }
+        missing.remove(key);
+        regions.put(key, region);
+        return region;
+    }
+
+    private static int getIndex(int chunkX, int chunkZ) {
+        return (chunkZ & REGION_MASK) << REGION_SHIFT | (chunkX & REGION_MASK);
+    }
+
+    /*
+     * Function to get the offset of a chunk record, writing the magic when it is written for the first time
+     */
+    private static int openRecord(Region region, int index, boolean write) {
+        int base = index * RECORD_SIZE;
+        if(write) {
+            if(region.buffer.getInt(base + MAGIC_OFFSET) != MAGIC) {
+                region.buffer.putInt(base + MAGIC_OFFSET, MAGIC);
+            }
+            region.dirty[index >> 6] |= 1L << (index & 63);
+            region.anyDirty = true;
+        }
+        return region.buffer.getInt(base + MAGIC_OFFSET) == MAGIC ? base : -1;
+    }
+
+    private static int getColumnOffset(int base, int x, int z) {
+        return base + CHARGE_OFFSET + ((z & 15) << 4 | (x & 15)) * 2;
+    }
+
+    /*
+     * Function to take up to max of the charge left in a column, the rest stays there
+     */
+    public int takeCharge(int x, int z, int max) {
+        int chunkX = ChunkSectionPos.getSectionCoord(x), chunkZ = ChunkSectionPos.getSectionCoord(z);
+        Region region = getRegion(chunkX, chunkZ, false);
+        if(region == null || max <= 0) {
+            return 0;
+        }
+        int index = getIndex(chunkX, chunkZ);
+        int base = openRecord(region, index, false);
+        if(base < 0) {
+            return 0;
+        }
+        int offset = getColumnOffset(base, x, z);
+        int charge = Math.min(max, region.buffer.getShort(offset) & 0xFFFF);
+        if(charge > 0) {
+            openRecord(region, index, true);
+            region.buffer.putShort(offset, (short)((region.buffer.getShort(offset) & 0xFFFF) - charge));
+        }
+        return charge;
+    }
+
+    /*
+     * Function to leave charge in a column, the charge of a column is capped
+     */
+    public void addCharge(int x, int z, int charge) {
+        if(charge <= 0) {
+            return;
+        }
+        int chunkX = ChunkSectionPos.getSectionCoord(x), chunkZ = ChunkSectionPos.getSectionCoord(z);
+        Region region = getRegion(chunkX, chunkZ, true);
+        if(region == null) {
+            return;
+        }
+        int offset = getColumnOffset(openRecord(region, getIndex(chunkX, chunkZ), true), x, z);
+        int total = Math.min(MAX_COLUMN_CHARGE, (region.buffer.getShort(offset) & 0xFFFF) + charge);
+        region.buffer.putShort(offset, (short)total);
+    }
+
+    /*
+     * Function to keep a cursor of an unloaded chunk. Returns false if the record of the chunk is full
+     */
+    public boolean addCursor(int chunkX, int chunkZ, long pos, int charge, int decay) {
+        Region region = getRegion(chunkX, chunkZ, true);
+        if(region == null) {
+            return false;
+        }
+        int base = openRecord(region, getIndex(chunkX, chunkZ), true);
+        int count = region.buffer.getInt(base + CURSOR_COUNT_OFFSET);
+        if(count >= MAX_CURSORS) {
+            return false;
+        }
+        int offset = base + CURSOR_OFFSET + count * CURSOR_SIZE;
+        region.buffer.putLong(offset, pos);
+        region.buffer.putInt(offset + 8, charge);
+        region.buffer.putInt(offset + 12, decay);
+        region.buffer.putInt(base + CURSOR_COUNT_OFFSET, count + 1);
+        return true;
+    }
+
+    /*
+     * Function to take the cursors kept for a chunk, called when it is loaded again
+     */
+    public void takeCursors(int chunkX, int chunkZ, CursorConsumer consumer) {
+        Region region = getRegion(chunkX, chunkZ, false);
+        if(region == null) {
+            return;
+        }
+        int index = getIndex(chunkX, chunkZ);
+        int base = openRecord(region, index, false);
+        if(base < 0) {
+            return;
+        }
+        int count = region.buffer.getInt(base + CURSOR_COUNT_OFFSET), i;
+        if(count <= 0) {
+            return;
+        }
+        openRecord(region, index, true);
+        region.buffer.putInt(base + CURSOR_COUNT_OFFSET, 0);
+        for(i = 0; i < Math.min(count, MAX_CURSORS); i++) {
+            int offset = base + CURSOR_OFFSET + i * CURSOR_SIZE;
+            consumer.accept(region.buffer.getLong(offset), region.buffer.getInt(offset + 8), region.buffer.getInt(offset + 12));
+        }
+    }
+
+    /*
+     * Function to force the records written since the last save to disk, runs of dirty records are forced together
+     */
+    public void flush() {
+        for(Region region : regions.values()) {
+            if(!region.anyDirty) {
+                continue;
+            }
+            int index = 0;
+            while(index < REGION_CHUNKS) {
+                if((region.dirty[index >> 6] & (1L << (index & 63))) == 0) {
+                    index++;
+                    continue;
+                }
+                int start = index;
+                while(index < REGION_CHUNKS && (region.dirty[index >> 6] & (1L << (index & 63))) != 0) {
+                    index++;
+                }
+                region.buffer.force(start * RECORD_SIZE, (index - start) * RECORD_SIZE);
+            }
+            Arrays.fill(region.dirty, 0L);
+            region.anyDirty = false;
+        }
+    }
+
+    private void close() {
+        flush();
+        for(Region region : regions.values()) {
+            try {
+                region.channel.close();
+            }
+            catch(IOException e) {
+                WildUpdate.LOGGER.error("Could not close sculk charge region", e);
+            }
+        }
+        regions.clear();
+        missing.clear();
+    }
+}
@@ -0,0 +1,221 @@
+package net.pyrix25633.wild_update.world;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+import net.pyrix25633.wild_update.block.ModBlocks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Every sculk catalyst and shrieker of the loaded chunks, kept by chunk section, so the handlers of game events
+ * can find the devices around a position without looking at the world.
+ * A device is a short: its type above the 12 bits of its position inside the section
+ */
+public class SculkDeviceRegistry {
+    private static final Map<RegistryKey<World>, SculkDeviceRegistry> WORLDS = new HashMap<>();
+    public static final int CATALYST = 1, SHRIEKER = 2;
+    private static final int TYPE_SHIFT = 12;
+
+    private final ServerWorld world;
+    private final Long2ObjectOpenHashMap<Section> sections = new Long2ObjectOpenHashMap<>();
+    //devices of each chunk column, so a query first looks at a few counters
+    private final Long2IntOpenHashMap chunkCounts = new Long2IntOpenHashMap();
+    private int total;
+
+    private static class Section {
+        private short[] devices = new short[4];
+        private int size;
+    }
+
+    private SculkDeviceRegistry(ServerWorld world) {
+        this.world = world;
+    }
+
+    public static SculkDeviceRegistry get(ServerWorld world) {
+        return WORLDS.computeIfAbsent(world.getRegistryKey(), key -> new SculkDeviceRegistry(world));
+    }
+
+    public static void clear() {
+        WORLDS.clear();
+    }
+
+    public static int getType(BlockState state) {
+        if(state.isOf(ModBlocks.SCULK_CATALYST)) {
+            return CATALYST;
+        }
+        if(state.isOf(ModBlocks.SCULK_SHRIEKER)) {
+            return SHRIEKER;
+        }
+        return 0;
+    }
+
+    private static short pack(int type, int x, int y, int z) {
+        return (short)(type << TYPE_SHIFT | (y & 15) << 8 | (z & 15) << 4 | (x & 15));
+    }
+
+    private void add(int type, int x, int y, int z) {
+        long key = ChunkSectionPos.asLong(ChunkSectionPos.getSectionCoord(x), ChunkSectionPos.getSectionCoord(y), ChunkSectionPos.getSectionCoord(z));
+        Section section = sections.get(key);
+        if(section == null) {
+            section = new Section();
+            sections.put(key, section);
+        }
+        short device = pack(type, x, y, z);
+        int i;
+        for(i = 0; i < section.size; i++) {
+            if(section.devices[i] == device) {
+                return;
+            }
+        }
+        if(section.size == section.devices.length) {
+            short[] devices = new short[section.size * 2];
+            System.arraycopy(section.devices, 0, devices, 0, section.size);
+            section.devices = devices;
+        }
+        section.devices[section.size++] = device;
+        chunkCounts.addTo(ChunkPos.toLong(ChunkSectionPos.getSectionCoord(x), ChunkSectionPos.getSectionCoord(z)), 1);
+        total++;
+    }
+
+    private void remove(int type, int x, int y, int z) {
+        long key = ChunkSectionPos.asLong(ChunkSectionPos.getSectionCoord(x), ChunkSectionPos.getSectionCoord(y), ChunkSectionPos.getSectionCoord(z));
+        Section section = sections.get(key);
+        if(section == null) {
+            return;
+        }
+        short device = pack(type, x, y, z);
+        int i;
+        for(i = 0; i < section.size; i++) {
+            if(section.devices[i] == device) {
+                section.devices[i] = section.devices[--section.size];
+                if(section.size == 0) {
+                    sections.remove(key);
+                }
+                long chunkKey = ChunkPos.toLong(ChunkSectionPos.getSectionCoord(x), ChunkSectionPos.getSectionCoord(z));
+                if(chunkCounts.addTo(chunkKey, -1) == 1) {
+                    chunkCounts.remove(chunkKey);
+                }
+                total--;
+                return;
+            }
+        }
+    }
+
+    public void onBlockChanged(BlockPos pos, BlockState oldState, BlockState newState) {
+        int oldType = getType(oldState), newType = getType(newState);
+        if(oldType == newType) {
+            return;
+        }
+        if(oldType != 0) {
+            remove(oldType, pos.getX(), pos.getY(), pos.getZ());
+        }
+        if(newType != 0) {
+            add(newType, pos.getX(), pos.getY(), pos.getZ());
+        }
+    }
+
+    /*
+     * Function to add the devices of a chunk that has just been loaded, only the sections whose palette has one are walked
+     */
+    public void onChunkLoad(WorldChunk chunk) {
+        ChunkSection[] chunkSections = chunk.getSectionArray();
+        int i, x, y, z;
+        for(i = 0; i < chunkSections.length; i++) {
+            ChunkSection section = chunkSections[i];
+            if(section.isEmpty() || !section.hasAny(state -> getType(state) != 0)) {
+                continue;
+            }
+            int baseY = ChunkSectionPos.getBlockCoord(chunk.sectionIndexToCoord(i));
+            for(y = 0; y < 16; y++) {
+                for(z = 0; z < 16; z++) {
+                    for(x = 0; x < 16; x++) {
+                        int type = getType(section.getBlockState(x, y, z));
+                        if(type != 0) {
+                            add(type, chunk.getPos().getStartX() + x, baseY + y, chunk.getPos().getStartZ() + z);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    public void onChunkUnload(ChunkPos pos) {
+        if(chunkCounts.remove(pos.toLong()) == 0) {
+            return;
+        }
+        int sectionY;
+        for(sectionY = world.getBottomSectionCoord(); sectionY < world.getTopSectionCoord(); sectionY++) {
+            Section section = sections.remove(ChunkSectionPos.asLong(pos.x, sectionY, pos.z));
+            if(section != null) {
+                total -= section.size;
+            }
+        }
+    }
+
+    /*
+     * Function to know if a device of one of the types is within radius of pos.
+     * With no device in the chunks around, the answer comes from a few counters
+     */
+    public boolean any(BlockPos pos, int radius, int typeMask) {
+        return find(pos, radius, typeMask, null) > 0;
+    }
+
+    /*
+     * Function to put in out the packed positions of the devices of the types within radius of pos, in no particular order.
+     * Returns how many were found, at most the length of out. Nothing is allocated
+     */
+    public int find(BlockPos pos, int radius, int typeMask, long[] out) {
+        if(total == 0) {
+            return 0;
+        }
+        int limit = out == null ? 1 : out.length;
+        int minChunkX = ChunkSectionPos.getSectionCoord(pos.getX() - radius), maxChunkX = ChunkSectionPos.getSectionCoord(pos.getX() + radius);
+        int minChunkZ = ChunkSectionPos.getSectionCoord(pos.getZ() - radius), maxChunkZ = ChunkSectionPos.getSectionCoord(pos.getZ() + radius);
+        int minSectionY = ChunkSectionPos.getSectionCoord(pos.getY() - radius), maxSectionY = ChunkSectionPos.getSectionCoord(pos.getY() + radius);
+        int radiusSquared = radius * radius;
+        int found = 0, chunkX, chunkZ, sectionY, i;
+        for(chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for(chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                if(!chunkCounts.containsKey(ChunkPos.toLong(chunkX, chunkZ))) {
+                    continue;
+                }
+                for(sectionY = minSectionY; sectionY <= maxSectionY; sectionY++) {
+                    Section section = sections.get(ChunkSectionPos.asLong(chunkX, sectionY, chunkZ));
+                    if(section == null) {
+                        continue;
+                    }
+                    for(i = 0; i < section.size; i++) {
+                        int device = section.devices[i];
+                        if((device >> TYPE_SHIFT & typeMask) == 0) {
+                            continue;
+                        }
+                        int x = ChunkSectionPos.getBlockCoord(chunkX) + (device & 15);
+                        int y = ChunkSectionPos.getBlockCoord(sectionY) + (device >> 8 & 15);
+                        int z = ChunkSectionPos.getBlockCoord(chunkZ) + (device >> 4 & 15);
+                        int dx = x - pos.getX(), dy = y - pos.getY(), dz = z - pos.getZ();
+                        if(dx * dx + dy * dy + dz * dz > radiusSquared) {
+                            continue;
+                        }
+                        if(out != null) {
+                            out[found] = BlockPos.asLong(x, y, z);
+                        }
+                        if(++found == limit) {
+                            return found;
+                        }
+                    }
+                }
+            }
+        }
+        return found;
+    }
+}
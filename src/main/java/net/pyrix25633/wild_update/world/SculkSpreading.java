@@ -0,0 +1,277 @@
+package net.pyrix25633.wild_update.world;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.World;
+import net.pyrix25633.wild_update.block.BlockStateIndex;
+import net.pyrix25633.wild_update.block.ModBlocks;
+import net.pyrix25633.wild_update.block.custom.VeinBlock;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Sculk spreading: a mob dying near a catalyst releases a charge cursor that walks over sculk and replaceable blocks,
+ * turning them into sculk and covering the open faces around them with veins.
+ * Cursors live in fixed primitive arrays, and every tick they get a hard number of steps on top of the time budget.
+ * Cursors of unloaded chunks and the charge left by spent cursors are kept in the SculkChargeStore
+ */
+public class SculkSpreading {
+    private static final Map<RegistryKey<World>, SculkSpreading> WORLDS = new HashMap<>();
+    private static final Direction[] DIRECTIONS = Direction.values();
+    public static final int CATALYST_RADIUS = 8;
+    private static final int MAX_CURSORS = 256, MAX_STEPS_PER_TICK = 128;
+    private static final int MAX_CHARGE = 200;
+    //steps a cursor can walk without converting anything before it fades
+    private static final int DECAY = 16;
+    //neighbors tried when a cursor looks for its next block
+    private static final int MOVE_ATTEMPTS = 4;
+
+    private final ServerWorld world;
+    private final SculkChargeStore store;
+    private final long[] positions = new long[MAX_CURSORS];
+    private final int[] charges = new int[MAX_CURSORS];
+    private final int[] decays = new int[MAX_CURSORS];
+    private int count;
+    private int next;
+    private long lastTick = -1;
+    private int stepsLeft;
+    //scratch positions reused by every step
+    private final BlockPos.Mutable cursor = new BlockPos.Mutable(), target = new BlockPos.Mutable(), neighbor = new BlockPos.Mutable();
+
+    private SculkSpreading(ServerWorld world) {
+        this.world = world;
+        this.store = SculkChargeStore.get(world);
+    }
+
+    public static SculkSpreading get(ServerWorld world) {
+        return WORLDS.computeIfAbsent(world.getRegistryKey(), key -> new SculkSpreading(world));
+    }
+
+    public static void clear() {
+        WORLDS.clear();
+    }
+
+    /*
+     * Function called with the experience a dying mob drops. Returns true if a catalyst is near and the experience
+     * became the charge of a cursor, in that case no orb is dropped
+     */
+    public static boolean onEntityDeath(ServerWorld world, BlockPos pos, int charge) {
+        if(!SculkDeviceRegistry.get(world).any(pos, CATALYST_RADIUS, SculkDeviceRegistry.CATALYST)) {
+            return false;
+        }
+        long start = findStart(world, pos);
+        return start != Long.MAX_VALUE && get(world).addCursor(start, charge, DECAY);
+    }
+
+    /*
+     * Function to find the block a cursor starts on: the first sculk or replaceable block at or below pos,
+     * looking through air, plants and water. Returns Long.MAX_VALUE if something else is hit first
+     */
+    private static long findStart(ServerWorld world, BlockPos pos) {
+        BlockPos.Mutable start = pos.mutableCopy();
+        int i;
+        for(i = 0; i <= CATALYST_RADIUS && start.getY() >= world.getBottomY(); i++) {
+            BlockState state = world.getBlockState(start);
+            if(state.isOf(ModBlocks.SCULK_BLOCK) || state.isOf(ModBlocks.SCULK_CATALYST) ||
+                    BlockStateIndex.SCULK_REPLACEABLE.contains(state)) {
+                return start.asLong();
+            }
+            if(state.getMaterial().blocksMovement()) {
+                return Long.MAX_VALUE;
+            }
+            start.move(Direction.DOWN);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /*
+     * Function to add a cursor to the pool. Returns false if the pool is full
+     */
+    private boolean addCursor(long packed, int charge, int decay) {
+        int i;
+        for(i = 0; i < count; i++) {
+            if(positions[i] == packed) {
+                charges[i] = Math.min(MAX_CHARGE, charges[i] + charge);
+                decays[i] = Math.max(decays[i], decay);
+                return true;
+            }
+        }
+        if(count == MAX_CURSORS) {
+            return false;
+        }
+        positions[count] = packed;
+        charges[count] = Math.min(MAX_CHARGE, charge);
+        decays[count] = decay;
+        count++;
+        return true;
+    }
+
+    /*
+     * Function to move a cursor to the store, when the record of its chunk is full only its charge is kept
+     */
+    private void keep(int i) {
+        int x = BlockPos.unpackLongX(positions[i]), z = BlockPos.unpackLongZ(positions[i]);
+        if(!store.addCursor(ChunkSectionPos.getSectionCoord(x), ChunkSectionPos.getSectionCoord(z), positions[i], charges[i], decays[i])) {
+            store.addCharge(x, z, charges[i]);
+        }
+    }
+
+    public void onChunkUnload(ChunkPos chunkPos) {
+        int i = 0;
+        while(i < count) {
+            if(ChunkSectionPos.getSectionCoord(BlockPos.unpackLongX(positions[i])) == chunkPos.x &&
+                    ChunkSectionPos.getSectionCoord(BlockPos.unpackLongZ(positions[i])) == chunkPos.z) {
+                keep(i);
+                removeCursor(i);
+            }
+            else {
+                i++;
+            }
+        }
+    }
+
+    /*
+     * Function to page in the cursors of a chunk that has just been loaded
+     */
+    public void onChunkLoad(ChunkPos chunkPos) {
+        store.takeCursors(chunkPos.x, chunkPos.z, (packed, charge, decay) -> {
+            if(!addCursor(packed, charge, decay)) {
+                store.addCharge(BlockPos.unpackLongX(packed), BlockPos.unpackLongZ(packed), charge);
+            }
+        });
+    }
+
+    /*
+     * Function to move every cursor to the store, called before the worlds are saved for the last time
+     */
+    public void unloadAll() {
+        while(count > 0) {
+            keep(count - 1);
+            count--;
+        }
+    }
+
+    private void removeCursor(int i) {
+        count--;
+        positions[i] = positions[count];
+        charges[i] = charges[count];
+        decays[i] = decays[count];
+    }
+
+    /*
+     * Function to move the cursors until the deadline or the steps of this tick run out.
+     * Returns true if steps of this tick are left
+     */
+    public boolean work(long deadline) {
+        if(world.getTime() != lastTick) {
+            lastTick = world.getTime();
+            stepsLeft = MAX_STEPS_PER_TICK;
+        }
+        while(count > 0 && stepsLeft > 0 && System.nanoTime() < deadline) {
+            stepsLeft--;
+            if(next >= count) {
+                next = 0;
+            }
+            if(step(next, cursor)) {
+                next++;
+            }
+            else {
+                removeCursor(next);
+            }
+        }
+        return count > 0 && stepsLeft > 0;
+    }
+
+    /*
+     * Function to make one step of a cursor: convert the block under it, then move to a neighbor.
+     * Returns false when the cursor is spent
+     */
+    private boolean step(int i, BlockPos.Mutable pos) {
+        pos.set(positions[i]);
+        if(!LoadedChunks.isLoaded(world, pos)) {
+            return false;
+        }
+        BlockState state = world.getBlockState(pos);
+        if(BlockStateIndex.SCULK_REPLACEABLE.contains(state)) {
+            world.setBlockState(pos, ModBlocks.SCULK_BLOCK.getDefaultState(), Block.NOTIFY_ALL);
+            placeVeins(pos);
+            charges[i]--;
+            decays[i] = DECAY;
+        }
+        else if(!state.isOf(ModBlocks.SCULK_BLOCK) && !state.isOf(ModBlocks.SCULK_CATALYST)) {
+            return false;
+        }
+        else {
+            //charge left in this column by spent cursors is picked up again
+            charges[i] += store.takeCharge(pos.getX(), pos.getZ(), MAX_CHARGE - charges[i]);
+        }
+        if(charges[i] <= 0) {
+            return false;
+        }
+        if(--decays[i] < 0) {
+            store.addCharge(pos.getX(), pos.getZ(), charges[i]);
+            return false;
+        }
+        int attempt;
+        for(attempt = 0; attempt < MOVE_ATTEMPTS; attempt++) {
+            int dx = world.random.nextInt(3) - 1, dy = world.random.nextInt(3) - 1, dz = world.random.nextInt(3) - 1;
+            if(dx == 0 && dy == 0 && dz == 0) {
+                continue;
+            }
+            target.set(pos.getX() + dx, pos.getY() + dy, pos.getZ() + dz);
+            if(!LoadedChunks.isLoaded(world, target)) {
+                continue;
+            }
+            BlockState targetState = world.getBlockState(target);
+            if((targetState.isOf(ModBlocks.SCULK_BLOCK) || BlockStateIndex.SCULK_REPLACEABLE.contains(targetState)) &&
+                    isExposed(target)) {
+                positions[i] = target.asLong();
+                break;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Function to know if a block has at least one open face, sculk only spreads over surfaces.
+     * Faces against chunks that are not loaded are not counted
+     */
+    private boolean isExposed(BlockPos pos) {
+        for(Direction direction : DIRECTIONS) {
+            neighbor.set(pos, direction);
+            if(LoadedChunks.isLoaded(world, neighbor) && !world.getBlockState(neighbor).isOpaqueFullCube(world, neighbor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Function to cover some of the open faces around a new sculk block with veins, merging the 6-bit face masks
+     */
+    private void placeVeins(BlockPos pos) {
+        VeinBlock vein = (VeinBlock)ModBlocks.SCULK_VEIN;
+        for(Direction direction : DIRECTIONS) {
+            neighbor.set(pos, direction);
+            if(!LoadedChunks.isLoaded(world, neighbor)) {
+                continue;
+            }
+            BlockState state = world.getBlockState(neighbor);
+            boolean water = state.isOf(Blocks.WATER) && state.getFluidState().isStill();
+            if(!(state.isAir() || water || state.isOf(ModBlocks.SCULK_VEIN)) || !world.random.nextBoolean()) {
+                continue;
+            }
+            int mask = VeinBlock.getFaceMask(state) | (1 << direction.getOpposite().getId());
+            boolean waterlogged = water || (state.isOf(ModBlocks.SCULK_VEIN) && !state.getFluidState().isEmpty());
+            world.setBlockState(neighbor, vein.withFaceMask(mask, waterlogged), Block.NOTIFY_ALL);
+        }
+    }
+}
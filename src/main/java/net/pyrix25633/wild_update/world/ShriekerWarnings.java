@@ -0,0 +1,224 @@
+package net.pyrix25633.wild_update.world;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.WorldSavePath;
+import net.pyrix25633.wild_update.WildUpdate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/*
+ * Warning level of every player that made a shrieker shriek, with the tick of its last raise.
+ * Players are kept in an open addressing table of primitive arrays keyed by the two halves of their UUID.
+ * Levels are never swept: the decay since the last raise is applied when a level is read,
+ * and players back to level 0 are dropped when the table grows or is saved, both rebuild it without them
+ */
+public class ShriekerWarnings {
+    private static ShriekerWarnings instance;
+    public static final int MAX_LEVEL = 4;
+    //a player raises its level at most once every 10 seconds, and one level goes away every 10 minutes
+    public static final int RAISE_COOLDOWN = 200, DECAY_TICKS = 12000;
+    private static final int MAGIC = 0x53485731, VERSION = 1;
+    private static final int MIN_CAPACITY = 16;
+
+    private final Path file;
+    //a slot is empty when its level is 0
+    private long[] most, least, lastTicks;
+    private byte[] levels;
+    private int mask, size;
+    private boolean dirty;
+
+    private ShriekerWarnings(Path file) {
+        this.file = file;
+        allocate(MIN_CAPACITY);
+    }
+
+    public static ShriekerWarnings get(MinecraftServer server) {
+        if(instance == null) {
+            instance = new ShriekerWarnings(server.getSavePath(WorldSavePath.ROOT).resolve("data").resolve("wild_update_shrieker_warnings.bin"));
+            instance.load();
+        }
+        return instance;
+    }
+
+    /*
+     * Function to save the warnings if they changed, called with the save of the overworld
+     */
+    public static void saveIfLoaded(long now) {
+        if(instance != null) {
+            instance.save(now);
+        }
+    }
+
+    //the last save of the overworld has already written the warnings
+    public static void close() {
+        instance = null;
+    }
+
+    private void allocate(int capacity) {
+        most = new long[capacity];
+        least = new long[capacity];
+        lastTicks = new long[capacity];
+        levels = new byte[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    private int getSlot(long mostBits, long leastBits) {
+        return (int)HashCommon.mix(mostBits ^ leastBits * 31) & mask;
+    }
+
+    /*
+     * Function to get the slot of a player, or the complement of the empty slot where it would go
+     */
+    private int find(long mostBits, long leastBits) {
+        int slot = getSlot(mostBits, leastBits);
+        while(levels[slot] != 0) {
+            if(most[slot] == mostBits && least[slot] == leastBits) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return ~slot;
+    }
+
+    private static int getDecayedLevel(int level, long lastTick, long now) {
+        long decay = Math.max(0, now - lastTick) / DECAY_TICKS;
+        return (int)Math.max(0, level - decay);
+    }
+
+    /*
+     * Function to raise the level of a player after a shriek. Returns the new level,
+     * or -1 if the player raised it too recently
+     */
+    public int tryRaise(UUID uuid, long now) {
+        long mostBits = uuid.getMostSignificantBits(), leastBits = uuid.getLeastSignificantBits();
+        int slot = find(mostBits, leastBits);
+        if(slot >= 0) {
+            if(now - lastTicks[slot] < RAISE_COOLDOWN) {
+                return -1;
+            }
+            levels[slot] = (byte)Math.min(MAX_LEVEL, getDecayedLevel(levels[slot], lastTicks[slot], now) + 1);
+            lastTicks[slot] = now;
+            dirty = true;
+            return levels[slot];
+        }
+        if((size + 1) * 2 > levels.length) {
+            rehash(now);
+        }
+        insert(mostBits, leastBits, 1, now);
+        dirty = true;
+        return 1;
+    }
+
+    private void insert(long mostBits, long leastBits, int level, long lastTick) {
+        int slot = ~find(mostBits, leastBits);
+        most[slot] = mostBits;
+        least[slot] = leastBits;
+        levels[slot] = (byte)level;
+        lastTicks[slot] = lastTick;
+        size++;
+    }
+
+    private int countLive(long now) {
+        int live = 0, i;
+        for(i = 0; i < levels.length; i++) {
+            if(levels[i] != 0 && getDecayedLevel(levels[i], lastTicks[i], now) > 0) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    private static int getCapacity(int count) {
+        return Math.max(MIN_CAPACITY, HashCommon.nextPowerOfTwo(count * 2 + 1));
+    }
+
+    /*
+     * Function to rebuild the table without the players back to level 0, sized for the ones left and one more
+     */
+    private void rehash(long now) {
+        long[] oldMost = most, oldLeast = least, oldLastTicks = lastTicks;
+        byte[] oldLevels = levels;
+        allocate(getCapacity(countLive(now) + 1));
+        int i;
+        for(i = 0; i < oldLevels.length; i++) {
+            if(oldLevels[i] != 0 && getDecayedLevel(oldLevels[i], oldLastTicks[i], now) > 0) {
+                insert(oldMost[i], oldLeast[i], oldLevels[i], oldLastTicks[i]);
+            }
+        }
+    }
+
+    /*
+     * Function to read the file: magic, version, count, then 25 bytes for every player
+     */
+    private void load() {
+        if(!Files.exists(file)) {
+            return;
+        }
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if(in.readInt() != MAGIC || in.readInt() != VERSION) {
+                WildUpdate.LOGGER.warn("Ignoring shrieker warnings file with an unknown format: " + file);
+                return;
+            }
+            int count = in.readInt(), i;
+            allocate(getCapacity(count));
+            for(i = 0; i < count; i++) {
+                long mostBits = in.readLong(), leastBits = in.readLong();
+                int level = in.readByte();
+                long lastTick = in.readLong();
+                if(level > 0 && find(mostBits, leastBits) < 0) {
+                    insert(mostBits, leastBits, Math.min(MAX_LEVEL, level), lastTick);
+                }
+            }
+        }
+        catch(IOException e) {
+            WildUpdate.LOGGER.error("Could not read shrieker warnings", e);
+        }
+        dirty = false;
+    }
+
+    /*
+     * Function to write the players that still have a warning level
+     */
+    private void save(long now) {
+        if(!dirty) {
+            return;
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        int live = countLive(now);
+        try {
+            Files.createDirectories(file.getParent());
+            try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(live);
+                int i;
+                for(i = 0; i < levels.length; i++) {
+                    if(levels[i] != 0 && getDecayedLevel(levels[i], lastTicks[i], now) > 0) {
+                        out.writeLong(most[i]);
+                        out.writeLong(least[i]);
+                        out.writeByte(levels[i]);
+                        out.writeLong(lastTicks[i]);
+                    }
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+            if(live < size) {
+                rehash(now);
+            }
+        }
+        catch(IOException e) {
+            WildUpdate.LOGGER.error("Could not save shrieker warnings", e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package net.pyrix25633.wild_update.world;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.world.ServerWorld;
+import net.pyrix25633.wild_update.registries.ModGameRules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Shares one nanosecond budget per server tick between every background subsystem of the mod, in every world.
+ * The budget follows the average tick time: it shrinks when the server gets near 50 ms and grows when it is idle
+ */
+public class WorkGovernor {
+    private static final List<Subsystem> SUBSYSTEMS = new ArrayList<>();
+    //tick time of a server at the limit, and how many milliseconds of headroom give the whole budget
+    private static final float TICK_MS = 50.0f, HEADROOM_MS = 20.0f;
+    private static final float MIN_SCALE = 0.1f, MAX_SCALE = 2.5f;
+
+    //moves every tick, so no subsystem is always served last
+    private static int offset;
+    private static boolean[] hasMore = new boolean[0];
+
+    /*
+     * Work of a subsystem in a world: it does what it can until the deadline, its own queues keep the rest,
+     * returns true if there is still work waiting
+     */
+    @FunctionalInterface
+    public interface Subsystem {
+        boolean work(ServerWorld world, long deadline);
+    }
+
+    public static void register(Subsystem subsystem) {
+        SUBSYSTEMS.add(subsystem);
+    }
+
+    /*
+     * Function to get how much of the configured budget can be used, from the average tick time
+     */
+    public static float getScale(MinecraftServer server) {
+        float scale = (TICK_MS - server.getTickTime()) / HEADROOM_MS;
+        return Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+    }
+
+    public static void tick(MinecraftServer server) {
+        long budget = (long)(server.getGameRules().getInt(ModGameRules.WORK_BUDGET) * getScale(server));
+        long end = System.nanoTime() + budget;
+        List<ServerWorld> worlds = new ArrayList<>();
+        for(ServerWorld world : server.getWorlds()) {
+            worlds.add(world);
+        }
+        int count = worlds.size() * SUBSYSTEMS.size();
+        if(count == 0) {
+            return;
+        }
+        if(hasMore.length != count) {
+            hasMore = new boolean[count];
+        }
+        offset = (offset + 1) % count;
+        int i;
+        //first pass: every subsystem gets its share of what is left, what it does not use goes to the next ones
+        for(i = 0; i < count; i++) {
+            int index = (offset + i) % count;
+            long now = System.nanoTime();
+            long deadline = now + Math.max(0, end - now) / (count - i);
+            hasMore[index] = SUBSYSTEMS.get(index % SUBSYSTEMS.size()).work(worlds.get(index / SUBSYSTEMS.size()), deadline);
+        }
+        //second pass: the rest of the budget goes to the subsystems that still have work
+        for(i = 0; i < count && System.nanoTime() < end; i++) {
+            int index = (offset + i) % count;
+            if(hasMore[index]) {
+                SUBSYSTEMS.get(index % SUBSYSTEMS.size()).work(worlds.get(index / SUBSYSTEMS.size()), end);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package net.pyrix25633.wild_update.world.feature;
+
+import com.mojang.serialization.Codec;
+import net.minecraft.block.Block;
+import net.minecraft.tag.BlockTags;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.StructureWorldAccess;
+import net.minecraft.world.gen.feature.DefaultFeatureConfig;
+import net.minecraft.world.gen.feature.Feature;
+import net.minecraft.world.gen.feature.util.FeatureContext;
+import net.pyrix25633.wild_update.block.BlockStateIndex;
+import net.pyrix25633.wild_update.world.BlockStateBuffer;
+import net.pyrix25633.wild_update.world.DecorationCursor;
+import net.pyrix25633.wild_update.world.MangroveTreePlanner;
+
+import java.util.Random;
+
+/*
+ * Places mangrove trees while chunks are decorated. It only uses the StructureWorldAccess it is given,
+ * so it runs on the world generation threads and shares its shape with the grown trees
+ */
+public class MangroveTreeFeature extends Feature<DefaultFeatureConfig> {
+    public MangroveTreeFeature(Codec<DefaultFeatureConfig> codec) {
+        super(codec);
+    }
+
+    @Override
+    public boolean generate(FeatureContext<DefaultFeatureConfig> context) {
+        StructureWorldAccess world = context.getWorld();
+        BlockPos pos = context.getOrigin();
+        Random random = context.getRandom();
+        if(!world.getBlockState(pos.down()).isIn(BlockTags.DIRT) ||
+                !BlockStateIndex.MANGROVE_REPLACEABLE.contains(world.getBlockState(pos))) {
+            return false;
+        }
+        BlockStateBuffer buffer = MangroveTreePlanner.createBuffer(pos);
+        buffer.read(world, Heightmap.Type.OCEAN_FLOOR_WG);
+        DecorationCursor decorations = MangroveTreePlanner.plan(buffer, pos, random);
+        if(decorations == null) {
+            return false;
+        }
+        buffer.writeChanges(world, Block.NOTIFY_ALL);
+        //the chunk is not ticking yet, so the decorations are placed right away
+        decorations.runAll(world);
+        return true;
+    }
+}
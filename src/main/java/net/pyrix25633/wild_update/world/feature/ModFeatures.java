@@ -0,0 +1,45 @@
+package net.pyrix25633.wild_update.world.feature;
+
+import net.fabricmc.fabric.api.biome.v1.BiomeModifications;
+import net.fabricmc.fabric.api.biome.v1.BiomeSelectors;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.registry.BuiltinRegistries;
+import net.minecraft.util.registry.Registry;
+import net.minecraft.util.registry.RegistryKey;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.gen.GenerationStep;
+import net.minecraft.world.gen.decorator.BiomePlacementModifier;
+import net.minecraft.world.gen.decorator.SquarePlacementModifier;
+import net.minecraft.world.gen.decorator.SurfaceWaterDepthFilterPlacementModifier;
+import net.minecraft.world.gen.feature.ConfiguredFeature;
+import net.minecraft.world.gen.feature.DefaultFeatureConfig;
+import net.minecraft.world.gen.feature.Feature;
+import net.minecraft.world.gen.feature.FeatureConfig;
+import net.minecraft.world.gen.feature.PlacedFeature;
+import net.minecraft.world.gen.feature.PlacedFeatures;
+import net.pyrix25633.wild_update.WildUpdate;
+
+public class ModFeatures {
+    public static final Feature<DefaultFeatureConfig> MANGROVE_TREE = Registry.register(Registry.FEATURE,
+            new Identifier(WildUpdate.MOD_ID, "mangrove_tree"), new MangroveTreeFeature(DefaultFeatureConfig.CODEC));
+
+    public static final ConfiguredFeature<?, ?> MANGROVE_TREE_CONFIGURED = Registry.register(
+            BuiltinRegistries.CONFIGURED_FEATURE, new Identifier(WildUpdate.MOD_ID, "mangrove_tree"),
+            MANGROVE_TREE.configure(FeatureConfig.DEFAULT));
+
+    public static final PlacedFeature MANGROVE_TREE_PLACED = Registry.register(
+            BuiltinRegistries.PLACED_FEATURE, new Identifier(WildUpdate.MOD_ID, "mangrove_tree"),
+            MANGROVE_TREE_CONFIGURED.withPlacement(PlacedFeatures.createCountExtraModifier(2, 0.1f, 1),
+                    SquarePlacementModifier.of(),
+                    SurfaceWaterDepthFilterPlacementModifier.of(4),
+                    PlacedFeatures.OCEAN_FLOOR_HEIGHTMAP,
+                    BiomePlacementModifier.of()));
+
+    public static void registerFeatures() {
+        System.out.println("Registering Features for " + WildUpdate.MOD_ID);
+
+        BiomeModifications.addFeature(BiomeSelectors.categories(Biome.Category.SWAMP),
+                GenerationStep.Feature.VEGETAL_DECORATION,
+                RegistryKey.of(Registry.PLACED_FEATURE_KEY, new Identifier(WildUpdate.MOD_ID, "mangrove_tree")));
+    }
+}